@@ -0,0 +1,54 @@
+package com.teradata.wearable.watchface;
+
+/**
+ * Screen sizes we ship on, with font and logo metrics approximating what the watch face measures
+ * on each of them.
+ */
+final class BenchmarkScreens {
+
+    static final String SIZES = "320x320,360x360,400x400,454x454";
+
+    private BenchmarkScreens() {
+    }
+
+    /** Layout for a "WIDTHxHEIGHT" screen description. */
+    static WatchFaceLayout layout(String size, boolean memoized) {
+        int separator = size.indexOf('x');
+        int width     = Integer.parseInt(size.substring(0, separator));
+        int height    = Integer.parseInt(size.substring(separator + 1));
+
+        // "88" at digital_text_size_round is roughly a fifth of the width and an eighth of the height.
+        float textSize    = width * 0.17f;
+        int   digitWidth  = width / 5;
+        int   digitHeight = height / 8;
+
+        // teradata_logo is 107x25, scaled like LogoBitmaps for a 320 px design width.
+        int logoWidth  = 107 * width / 320;
+        int logoHeight = 25 * height / 320;
+
+        return memoized
+                ? WatchFaceLayout.of(width, height, true, textSize, digitWidth, digitHeight, logoWidth, logoHeight)
+                : WatchFaceLayout.compute(width, height, true, textSize, digitWidth, digitHeight, logoWidth, logoHeight);
+    }
+
+    /** Ink width of a run of digits, as the face would measure it. */
+    static int textWidth(WatchFaceLayout layout, int length) {
+        return layout.digitWidth * length / 2;
+    }
+
+    /** {@link #textWidth} for the time digits, in the form the face's frame planning takes. */
+    static FaceFrame.DigitWidths digitWidths(final WatchFaceLayout layout) {
+        return new FaceFrame.DigitWidths() {
+            @Override
+            public int hoursWidth(int hourOfDay, boolean militaryTime) {
+                int hour = hourOfDay % 12 == 0 ? 12 : hourOfDay % 12;
+                return textWidth(layout, militaryTime || hour >= 10 ? 2 : 1);
+            }
+
+            @Override
+            public int twoDigitsWidth(int value) {
+                return textWidth(layout, 2);
+            }
+        };
+    }
+}
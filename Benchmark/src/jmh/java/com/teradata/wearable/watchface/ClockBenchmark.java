@@ -0,0 +1,55 @@
+package com.teradata.wearable.watchface;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-frame clock work of TeradataWatchService.Engine: turning the frame time into the hour,
+ * minute, second and day fields, with Calendar as the face used to and with {@link WallClock}.
+ * Each invocation advances a second, so day changes and DST transitions occur at their real rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClockBenchmark {
+
+    @Param({"UTC", "America/New_York", "Australia/Lord_Howe"})
+    public String zone;
+
+    private Calendar  calendar;
+    private WallClock wallClock;
+    private long      now;
+
+    @Setup
+    public void setUp() {
+        TimeZone timeZone = TimeZone.getTimeZone(zone);
+        calendar  = Calendar.getInstance(timeZone);
+        wallClock = new WallClock(timeZone);
+        now       = 1500000000000L;
+    }
+
+    @Benchmark
+    public int calendar() {
+        now += WallClock.SECOND_MILLIS;
+        calendar.setTimeInMillis(now);
+        return calendar.get(Calendar.HOUR_OF_DAY) + calendar.get(Calendar.MINUTE) + calendar.get(Calendar.SECOND)
+                + calendar.get(Calendar.YEAR) * 1000 + calendar.get(Calendar.DAY_OF_YEAR);
+    }
+
+    @Benchmark
+    public int wallClock() {
+        now += WallClock.SECOND_MILLIS;
+        wallClock.set(now);
+        return wallClock.hour + wallClock.minute + wallClock.second + wallClock.dayKey();
+    }
+}
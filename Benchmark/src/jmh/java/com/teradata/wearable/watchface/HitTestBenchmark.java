@@ -0,0 +1,89 @@
+package com.teradata.wearable.watchface;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving a tap to a complication, over a fixed set of tap positions spread across the whole
+ * screen: the boxed linear scan the engine used to do against the ComplicationSlots hit grid, for
+ * the two slots the face has and for faces with many more.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HitTestBenchmark {
+
+    private static final int TAPS = 256;
+
+    @Param({"320x320", "360x360", "400x400", "454x454"})
+    public String size;
+
+    @Param({"2", "8", "32"})
+    public int slotCount;
+
+    private final List<Integer> complicationIds = new ArrayList<>();
+    private final int[]         tapX            = new int[TAPS];
+    private final int[]         tapY            = new int[TAPS];
+
+    // left, top, right, bottom per complication id
+    private int[][]           bounds;
+    private ComplicationSlots slots;
+    private int               next;
+
+    @Setup
+    public void setUp() {
+        WatchFaceLayout layout = BenchmarkScreens.layout(size, true);
+
+        // Slots in rows of up to eight, each a tenth of the width with a small gap.
+        ComplicationSlots.Builder builder = new ComplicationSlots.Builder();
+        for (int i = 0; i < slotCount; i++) {
+            builder.add(i, 0.1f + (i % 8) * 0.1f, 0.1f + (i / 8) * 0.2f, 0.09f);
+        }
+        slots = builder.build();
+        slots.layout(layout.width, layout.height);
+
+        bounds = new int[slotCount][];
+        for (int i = 0; i < slotCount; i++) {
+            bounds[i] = new int[] { slots.left(i), slots.top(i), slots.right(i), slots.bottom(i) };
+            complicationIds.add(i);
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < TAPS; i++) {
+            tapX[i] = random.nextInt(layout.width);
+            tapY[i] = random.nextInt(layout.height);
+        }
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int i = next++ & (TAPS - 1);
+        int x = tapX[i];
+        int y = tapY[i];
+        for (int complicationId : complicationIds) {
+            int[] rect = bounds[complicationId];
+            if (x >= rect[0] && x < rect[2] && y >= rect[1] && y < rect[3]) {
+                return complicationId;
+            }
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public int hitGrid() {
+        int i = next++ & (TAPS - 1);
+        int slot = slots.slotAt(tapX[i], tapY[i]);
+        return slot != ComplicationSlots.NONE ? slots.id(slot) : -1;
+    }
+}
@@ -0,0 +1,34 @@
+package com.teradata.wearable.watchface;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of working out the face geometry when the surface or insets change, computed from scratch
+ * and through the memoized lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LayoutBenchmark {
+
+    @Param({"320x320", "360x360", "400x400", "454x454"})
+    public String size;
+
+    @Benchmark
+    public WatchFaceLayout compute() {
+        return BenchmarkScreens.layout(size, false);
+    }
+
+    @Benchmark
+    public WatchFaceLayout memoized() {
+        return BenchmarkScreens.layout(size, true);
+    }
+}
@@ -0,0 +1,86 @@
+package com.teradata.wearable.watchface;
+
+/**
+ * Stand-in for android.graphics.Canvas that records draw calls into primitive arrays instead of
+ * rasterizing them, so the cost of deciding what to draw can be measured on a desktop JVM.
+ */
+final class RecordingCanvas {
+
+    static final int OP_TEXT   = 1;
+    static final int OP_LINE   = 2;
+    static final int OP_BITMAP = 3;
+    static final int OP_CIRCLE = 4;
+    static final int OP_RECT   = 5;
+    static final int OP_COLOR  = 6;
+
+    private static final int MAX_OPS = 64;
+
+    private final int[]   ops    = new int[MAX_OPS];
+    private final float[] coords = new float[MAX_OPS * 4];
+    private int           count;
+    private long          checksum;
+
+    void reset() {
+        count = 0;
+    }
+
+    void drawText(char[] text, int index, int length, float x, float y) {
+        for (int i = index; i < index + length; i++) {
+            checksum = checksum * 31 + text[i];
+        }
+        record(OP_TEXT, x, y, length, 0);
+    }
+
+    void drawText(String text, float x, float y) {
+        for (int i = 0; i < text.length(); i++) {
+            checksum = checksum * 31 + text.charAt(i);
+        }
+        record(OP_TEXT, x, y, text.length(), 0);
+    }
+
+    void drawLine(float startX, float startY, float stopX, float stopY) {
+        record(OP_LINE, startX, startY, stopX, stopY);
+    }
+
+    void drawBitmap(int bitmapId, float left, float top) {
+        record(OP_BITMAP, left, top, bitmapId, 0);
+    }
+
+    void drawCircle(float cx, float cy, float radius) {
+        record(OP_CIRCLE, cx, cy, radius, 0);
+    }
+
+    void drawRect(float left, float top, float right, float bottom) {
+        record(OP_RECT, left, top, right, bottom);
+    }
+
+    void drawColor(int color) {
+        record(OP_COLOR, color, 0, 0, 0);
+    }
+
+    int count() {
+        return count;
+    }
+
+    /** A value depending on everything drawn, for the benchmark to return. */
+    long checksum() {
+        long sum = checksum;
+        for (int i = 0; i < count * 4; i++) {
+            sum = sum * 31 + Float.floatToIntBits(coords[i]);
+        }
+        return sum;
+    }
+
+    private void record(int op, float a, float b, float c, float d) {
+        if (count == MAX_OPS) {
+            count = 0;
+        }
+        ops[count] = op;
+        int base = count * 4;
+        coords[base]     = a;
+        coords[base + 1] = b;
+        coords[base + 2] = c;
+        coords[base + 3] = d;
+        count++;
+    }
+}
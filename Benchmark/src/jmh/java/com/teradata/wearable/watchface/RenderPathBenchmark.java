@@ -0,0 +1,181 @@
+package com.teradata.wearable.watchface;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One frame of TeradataWatchService.Engine.onDraw, with the canvas replaced by a
+ * {@link RecordingCanvas}. The time is placed by the engine's own {@link FaceFrame}, with digit
+ * widths from {@link BenchmarkScreens} in place of the paint's metrics. Each invocation advances the clock by the interval the engine's timer
+ * would use, so hour, minute and date changes occur at their real rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RenderPathBenchmark {
+
+    private static final Locale LOCAL = Locale.US;
+
+    @Param({"320x320", "360x360", "400x400", "454x454"})
+    public String size;
+
+    @Param({"true", "false"})
+    public boolean militaryTime;
+
+    @Param({"true", "false"})
+    public boolean showSeconds;
+
+    @Param({"false", "true"})
+    public boolean ambientMode;
+
+    private final RecordingCanvas canvas = new RecordingCanvas();
+
+    private WatchFaceLayout  layout;
+    private AmbientDriftPath driftPath;
+    private DateText         dateText;
+    private WallClock        wallClock;
+    private FaceFrame        faceFrame;
+    private long             now;
+    private long             interval;
+
+    // State for the String.format path and random drift the face used before.
+    private int              offsetX;
+    private int              offsetY;
+    private int              hoursLeft;
+    private int              minutesLeft;
+    private Calendar         calendar;
+    private SimpleDateFormat dateFormatter;
+    private Date             currentDate;
+    private String           lastHoursString;
+    private String           lastMinutesString;
+
+    @Setup
+    public void setUp() {
+        layout    = BenchmarkScreens.layout(size, true);
+        driftPath = new AmbientDriftPath(layout.ambientSizeX, layout.ambientSizeY);
+        dateText  = new DateText(LOCAL);
+        wallClock = new WallClock(TimeZone.getDefault());
+        faceFrame = new FaceFrame(new TimeText(LOCAL));
+        faceFrame.setLayout(layout, driftPath);
+        faceFrame.setWidths(BenchmarkScreens.digitWidths(layout));
+        calendar  = Calendar.getInstance(LOCAL);
+
+        dateFormatter = new SimpleDateFormat("E d ", LOCAL);
+        currentDate   = new Date();
+
+        now      = 1500000000000L;
+        interval = ambientMode || !showSeconds ? TimeUnit.MINUTES.toMillis(1) : TimeUnit.SECONDS.toMillis(1);
+    }
+
+    @Benchmark
+    public long frame() {
+        now += interval;
+        wallClock.set(now);
+        canvas.reset();
+
+        dateText.update(wallClock);
+        faceFrame.update(wallClock, now, ambientMode, true, militaryTime, showSeconds);
+
+        // Background: static layer blit, plus the centre line in ambient mode.
+        if (ambientMode) {
+            canvas.drawColor(0);
+        }
+        canvas.drawBitmap(0, faceFrame.offsetX, faceFrame.offsetY);
+        if (ambientMode) {
+            canvas.drawLine(0, layout.midpoint + faceFrame.offsetY, layout.width, layout.midpoint + faceFrame.offsetY);
+        }
+
+        // Face
+        canvas.drawText(faceFrame.hours,   0, faceFrame.hours.length,   faceFrame.hoursX,   faceFrame.hoursY);
+        canvas.drawText(faceFrame.minutes, 0, faceFrame.minutes.length, faceFrame.minutesX, faceFrame.minutesY);
+        if (faceFrame.seconds != null) {
+            canvas.drawText(faceFrame.seconds, 0, faceFrame.seconds.length, faceFrame.secondsX, faceFrame.secondsY);
+        }
+
+        drawRest();
+        return canvas.checksum();
+    }
+
+    @Benchmark
+    public long frameWithStringFormat() {
+        now += interval;
+        calendar.setTimeInMillis(now);
+        currentDate.setTime(now);
+        canvas.reset();
+
+        if (ambientMode) {
+            canvas.drawColor(0);
+            randomDrift();
+        }
+        canvas.drawBitmap(0, offsetX, offsetY);
+
+        String hours   = String.format(LOCAL, !militaryTime ? "%d" : "%02d", calendar.get(militaryTime ? Calendar.HOUR_OF_DAY : Calendar.HOUR));
+        String minutes = String.format(LOCAL, "%02d", calendar.get(Calendar.MINUTE));
+        if (hours.equals("0") && !militaryTime) hours = "12";
+        String date    = dateFormatter.format(currentDate);
+
+        if (!hours.equals(lastHoursString)) {
+            hoursLeft = layout.centeredLeft(BenchmarkScreens.textWidth(layout, hours.length()));
+            lastHoursString = hours;
+        }
+        if (!minutes.equals(lastMinutesString)) {
+            minutesLeft = layout.centeredLeft(BenchmarkScreens.textWidth(layout, minutes.length()));
+            lastMinutesString = minutes;
+        }
+        canvas.drawText(hours,   hoursLeft + offsetX,   layout.hoursBaseline + offsetY);
+        canvas.drawText(minutes, minutesLeft + offsetX, layout.minutesBaseline + offsetY);
+        if (showSeconds && !ambientMode) {
+            String seconds = String.format(LOCAL, "%02d", calendar.get(Calendar.SECOND));
+            canvas.drawText(seconds, minutesLeft + layout.digitWidth + WatchFaceLayout.LINE_OFFSET, layout.minutesBaseline - layout.digitHeight - WatchFaceLayout.LINE_OFFSET);
+        }
+        canvas.drawLine(0, layout.midpoint + offsetY, layout.width, layout.midpoint + offsetY);
+        canvas.drawBitmap(1, layout.logoLeft + offsetX, layout.logoTop + offsetY);
+        canvas.drawText(date, layout.logoLeft + offsetX, layout.midpoint + offsetY);
+
+        drawRest();
+        return canvas.checksum();
+    }
+
+    @Benchmark
+    public long ambientDriftRandom() {
+        randomDrift();
+        return offsetX * 31L + offsetY;
+    }
+
+    @Benchmark
+    public long ambientDriftPath() {
+        now += interval;
+        int step = driftPath.stepAt(now);
+        return driftPath.offsetX(step) * 31L + driftPath.offsetY(step);
+    }
+
+    // Ambient drift as drawBackground computed it before the precomputed path.
+    private void randomDrift() {
+        double ambientLength = Math.random() * 100;
+        double ambientPie    = (int) Math.round(Math.random() * 360);
+        offsetX = (int) (((layout.ambientSizeX * Math.cos(Math.toRadians(ambientPie))) - layout.ambientSizeX) / 100.0 * ambientLength);
+        offsetY = (int) ((layout.ambientSizeY * Math.sin(Math.toRadians(ambientPie))) / 100.0 * ambientLength);
+    }
+
+    // Unread notification dot and battery line.
+    private void drawRest() {
+        canvas.drawCircle(layout.notificationX, layout.notificationY, 8);
+        if (!ambientMode) {
+            canvas.drawCircle(layout.notificationX, layout.notificationY, 4);
+            canvas.drawLine(0, layout.midpoint, (int) (layout.midpoint * 0.02 * 75f), layout.midpoint);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import android.util.Log;
 
 import com.teradata.wearable.R;
 import com.teradata.wearable.model.ComplicationConfigData;
+import com.teradata.wearable.model.SettingsStore;
 import com.teradata.wearable.watchface.TeradataWatchService;
 
 /**
@@ -37,7 +38,7 @@ public class ComplicationConfigActivity extends Activity {
         adapter = new ComplicationConfigRecyclerViewAdapter(
                 getApplicationContext(),
                 ComplicationConfigData.getWatchFaceServiceClass(),
-                ComplicationConfigData.getDataToPopulateAdapter(this));
+                ComplicationConfigData.getDataToPopulateAdapter());
 
         WearableRecyclerView wearableRecyclerView = findViewById(R.id.wearable_recycler_view);
 
@@ -51,6 +52,37 @@ public class ComplicationConfigActivity extends Activity {
         wearableRecyclerView.setHasFixedSize(true);
 
         wearableRecyclerView.setAdapter(adapter);
+
+        // Inflate the toggles for further down the list once the first frame is up.
+        final WearableRecyclerView recyclerView = wearableRecyclerView;
+        recyclerView.post(new Runnable() {
+            @Override
+            public void run() {
+                adapter.prewarm(recyclerView);
+            }
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+
+        // Settings may have changed elsewhere; only the rows that differ are bound again.
+        adapter.setItems(ComplicationConfigData.getDataToPopulateAdapter());
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+
+        // Toggles are batched in memory; publish the last of them and write them out once.
+        SettingsStore.get(this).flush();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        Log.d(TAG, "Drawable cache: " + DrawableCache.stats());
     }
 
     @Override
@@ -64,6 +96,9 @@ public class ComplicationConfigActivity extends Activity {
                     data.getParcelableExtra(ProviderChooserIntent.EXTRA_PROVIDER_INFO);
             Log.d(TAG, "Provider: " + complicationProviderInfo);
 
+            // The provider set changed; the adapter caches the new provider for its slot.
+            ProviderInfoCache.invalidate();
+
             // Updates preview with new complication information for selected complication id.
             // Note: complication id is saved and tracked in the adapter class.
             adapter.updateSelectedComplication(complicationProviderInfo);
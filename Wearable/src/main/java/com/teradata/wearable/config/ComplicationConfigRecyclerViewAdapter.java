@@ -16,7 +16,7 @@
 package com.teradata.wearable.config;
 
 import android.content.Context;
-import android.content.SharedPreferences;
+import android.support.v7.util.DiffUtil;
 import android.support.v7.widget.RecyclerView;
 import android.support.wearable.complications.ComplicationProviderInfo;
 import android.support.wearable.complications.ProviderInfoRetriever;
@@ -25,17 +25,20 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import com.teradata.wearable.model.ComplicationConfigData.ConfigItemType;
+import com.teradata.wearable.model.SettingsStore;
+import com.teradata.wearable.model.SharedExecutor;
+import com.teradata.wearable.model.TraceLog;
 import com.teradata.wearable.model.configitems.MoreOptionsConfigItem;
 import com.teradata.wearable.model.configitems.PreviewAndComplicationsConfigItem;
-import com.teradata.wearable.model.configitems.ToggleConfigItem;
+import com.teradata.wearable.model.configitems.SettingDescriptor;
 import com.teradata.wearable.model.holders.MoreOptionsViewHolder;
 import com.teradata.wearable.model.holders.PreviewAndComplicationsViewHolder;
 import com.teradata.wearable.model.holders.ToggleOptionsViewHolder;
 import com.teradata.wearable.watchface.TeradataWatchService;
 
 import java.util.ArrayList;
-import java.util.concurrent.Executors;
 
+import com.teradata.wearable.BuildConfig;
 import com.teradata.wearable.R;
 
 /**
@@ -60,19 +63,20 @@ public class ComplicationConfigRecyclerViewAdapter extends RecyclerView.Adapter<
 
     public static final int TYPE_PREVIEW_AND_COMPLICATIONS_CONFIG = 0;
     public static final int TYPE_MORE_OPTIONS = 1;
-    public static final int TYPE_SHOW_DATE = 2;
-    public static final int TYPE_SHOW_SECONDS = 3;
-    public static final int TYPE_SHOW_BATTERY_STATUS = 4;
-    public static final int TYPE_MILITARY_TIME = 5;
-    public static final int TYPE_AMBIENT_DRIFT = 6;
-    public static final int TYPE_NOTIFICATIONS = 7;
+    public static final int TYPE_TOGGLE = 2;
+
+    // Toggle holders created ahead of time, enough to fill the screen while scrolling.
+    private static final int PREWARMED_TOGGLES = 4;
 
     private ArrayList<ConfigItemType> settingsDataSet;
 
     private Context context;
     private Class watchServiceClass;
 
-    private SharedPreferences sharedPreferences;
+    private SettingsStore settingsStore;
+
+    // Settings the toggles were last bound with, to tell which rows need binding again.
+    private int boundFlags;
 
     // Required to retrieve complication data from watch face for preview.
     private ProviderInfoRetriever providerInfoRetriever;
@@ -84,15 +88,17 @@ public class ComplicationConfigRecyclerViewAdapter extends RecyclerView.Adapter<
         this.settingsDataSet   = settingsDataSet;
         this.watchServiceClass = watchServiceClass;
 
-        sharedPreferences = context.getSharedPreferences(context.getString(R.string.analog_complication_preference_file_key), Context.MODE_PRIVATE);
+        settingsStore = SettingsStore.get(context);
+        boundFlags    = settingsStore.flags();
+        setHasStableIds(true);
 
-        providerInfoRetriever = new ProviderInfoRetriever(context, Executors.newCachedThreadPool());
+        providerInfoRetriever = new ProviderInfoRetriever(context, SharedExecutor.get());
         providerInfoRetriever.init();
     }
 
     @Override
     public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
-        Log.d(TAG, "onCreateViewHolder(): viewType: " + viewType);
+        if (BuildConfig.TRACING) TraceLog.trace(TraceLog.CREATE_VIEW_HOLDER, viewType);
 
         RecyclerView.ViewHolder viewHolder = null;
 
@@ -122,76 +128,16 @@ public class ComplicationConfigRecyclerViewAdapter extends RecyclerView.Adapter<
                                                 false));
                 break;
 
-            case TYPE_SHOW_DATE:
-                viewHolder =
-                        new ToggleOptionsViewHolder(
-                                LayoutInflater.from(parent.getContext())
-                                        .inflate(
-                                                R.layout.config_list_show_date_item,
-                                                parent,
-                                                false),
-                                sharedPreferences,
-                                R.id.show_date);
-                break;
-
-            case TYPE_SHOW_SECONDS:
-                viewHolder =
-                        new ToggleOptionsViewHolder(
-                                LayoutInflater.from(parent.getContext())
-                                        .inflate(
-                                                R.layout.config_list_show_seconds_item,
-                                                parent,
-                                                false),
-                                sharedPreferences,
-                                R.id.show_seconds);
-                break;
-
-            case TYPE_SHOW_BATTERY_STATUS:
-                viewHolder =
-                        new ToggleOptionsViewHolder(
-                                LayoutInflater.from(parent.getContext())
-                                        .inflate(
-                                                R.layout.config_list_show_battery_status_item,
-                                                parent,
-                                                false),
-                                sharedPreferences,
-                                R.id.show_battery_status);
-                break;
-
-            case TYPE_MILITARY_TIME:
-                viewHolder =
-                        new ToggleOptionsViewHolder(
-                                LayoutInflater.from(parent.getContext())
-                                        .inflate(
-                                                R.layout.config_list_military_time_item,
-                                                parent,
-                                                false),
-                                sharedPreferences,
-                                R.id.military_time);
-                break;
-
-            case TYPE_AMBIENT_DRIFT:
-                viewHolder =
-                        new ToggleOptionsViewHolder(
-                                LayoutInflater.from(parent.getContext())
-                                        .inflate(
-                                                R.layout.config_list_ambient_drift_item,
-                                                parent,
-                                                false),
-                                sharedPreferences,
-                                R.id.ambient_drift);
-                break;
-
-            case TYPE_NOTIFICATIONS:
+            case TYPE_TOGGLE:
                 viewHolder =
                         new ToggleOptionsViewHolder(
                                 LayoutInflater.from(parent.getContext())
                                         .inflate(
-                                                R.layout.config_list_notification_item,
+                                                R.layout.config_list_switch_item,
                                                 parent,
                                                 false),
-                                sharedPreferences,
-                                R.id.show_notifications);
+                                settingsStore,
+                                R.id.toggle_switch);
                 break;
         }
 
@@ -200,14 +146,13 @@ public class ComplicationConfigRecyclerViewAdapter extends RecyclerView.Adapter<
 
     @Override
     public void onBindViewHolder(RecyclerView.ViewHolder viewHolder, int position) {
-        Log.d(TAG, "Element " + position + " set.");
+        if (BuildConfig.TRACING) TraceLog.trace(TraceLog.BIND_VIEW_HOLDER, position);
 
         // Pulls all data required for creating the UX for the specific setting option.
         ConfigItemType configItemType = settingsDataSet.get(position);
 
         switch (viewHolder.getItemViewType()) {
             case TYPE_PREVIEW_AND_COMPLICATIONS_CONFIG:
-                Log.d(TAG, "1");
                 PreviewAndComplicationsViewHolder previewAndComplicationsViewHolder = (PreviewAndComplicationsViewHolder) viewHolder;
                 PreviewAndComplicationsConfigItem previewAndComplicationsConfigItem = (PreviewAndComplicationsConfigItem) configItemType;
 
@@ -217,106 +162,14 @@ public class ComplicationConfigRecyclerViewAdapter extends RecyclerView.Adapter<
                 break;
 
             case TYPE_MORE_OPTIONS:
-                Log.d(TAG, "2");
                 MoreOptionsViewHolder moreOptionsViewHolder = (MoreOptionsViewHolder) viewHolder;
                 MoreOptionsConfigItem moreOptionsConfigItem = (MoreOptionsConfigItem) configItemType;
                 moreOptionsViewHolder.setIcon(moreOptionsConfigItem.getIconResourceId());
                 break;
 
-            case TYPE_SHOW_DATE:
-                Log.d(TAG, "3");
-                ToggleOptionsViewHolder showDate    = (ToggleOptionsViewHolder) viewHolder;
-                ToggleConfigItem showDateConfigItem = (ToggleConfigItem) configItemType;
-
-                int showDateEnabledIconResourceId  = showDateConfigItem.getIconEnabledResourceId();
-                int showDateDisabledIconResourceId = showDateConfigItem.getIconDisabledResourceId();
-
-                String showDateName      = showDateConfigItem.getName();
-                int showDateSharedPrefId = showDateConfigItem.getSharedPrefId();
-
-                showDate.setIcons(showDateEnabledIconResourceId, showDateDisabledIconResourceId);
-                showDate.setName(showDateName);
-                showDate.setSharedPrefId(showDateSharedPrefId, true);
-                break;
-
-            case TYPE_SHOW_SECONDS:
-                Log.d(TAG, "4");
-                ToggleOptionsViewHolder showSeconds    = (ToggleOptionsViewHolder) viewHolder;
-                ToggleConfigItem showSecondsConfigItem = (ToggleConfigItem) configItemType;
-
-                int showsecondsEnabledIconResourceId  = showSecondsConfigItem.getIconEnabledResourceId();
-                int showSecondsDisabledIconResourceId = showSecondsConfigItem.getIconDisabledResourceId();
-
-                String showSecondsName      = showSecondsConfigItem.getName();
-                int showSecondsSharedPrefId = showSecondsConfigItem.getSharedPrefId();
-
-                showSeconds.setIcons(showsecondsEnabledIconResourceId, showSecondsDisabledIconResourceId);
-                showSeconds.setName(showSecondsName);
-                showSeconds.setSharedPrefId(showSecondsSharedPrefId, false);
-                break;
-
-            case TYPE_SHOW_BATTERY_STATUS:
-                Log.d(TAG, "5");
-                ToggleOptionsViewHolder showBattery    = (ToggleOptionsViewHolder) viewHolder;
-                ToggleConfigItem showBatteryConfigItem = (ToggleConfigItem) configItemType;
-
-                int showBatteryEnabledIconResourceId  = showBatteryConfigItem.getIconEnabledResourceId();
-                int showBatteryDisabledIconResourceId = showBatteryConfigItem.getIconDisabledResourceId();
-
-                String showBatteryName      = showBatteryConfigItem.getName();
-                int showBatterySharedPrefId = showBatteryConfigItem.getSharedPrefId();
-
-                showBattery.setIcons(showBatteryEnabledIconResourceId, showBatteryDisabledIconResourceId);
-                showBattery.setName(showBatteryName);
-                showBattery.setSharedPrefId(showBatterySharedPrefId, true);
-                break;
-
-            case TYPE_MILITARY_TIME:
-                Log.d(TAG, "6");
-                ToggleOptionsViewHolder militaryTime    = (ToggleOptionsViewHolder) viewHolder;
-                ToggleConfigItem militaryTimeConfigItem = (ToggleConfigItem) configItemType;
-
-                int militaryTimeEnabledIconResourceId  = militaryTimeConfigItem.getIconEnabledResourceId();
-                int militaryTimeDisabledIconResourceId = militaryTimeConfigItem.getIconDisabledResourceId();
-
-                String militaryTimeName      = militaryTimeConfigItem.getName();
-                int militaryTimeSharedPrefId = militaryTimeConfigItem.getSharedPrefId();
-
-                militaryTime.setIcons(militaryTimeEnabledIconResourceId, militaryTimeDisabledIconResourceId);
-                militaryTime.setName(militaryTimeName);
-                militaryTime.setSharedPrefId(militaryTimeSharedPrefId, true);
-                break;
-
-            case TYPE_AMBIENT_DRIFT:
-                Log.d(TAG, "7");
-                ToggleOptionsViewHolder ambientDrift    = (ToggleOptionsViewHolder) viewHolder;
-                ToggleConfigItem ambientDriftConfigItem = (ToggleConfigItem) configItemType;
-
-                int ambientDriftEnabledResourceIconId  = ambientDriftConfigItem.getIconEnabledResourceId();
-                int ambientDriftDisabledIconResourceId = ambientDriftConfigItem.getIconDisabledResourceId();
-
-                String ambientDriftName      = ambientDriftConfigItem.getName();
-                int ambientDriftSharedPrefId = ambientDriftConfigItem.getSharedPrefId();
-
-                ambientDrift.setIcons(ambientDriftEnabledResourceIconId, ambientDriftDisabledIconResourceId);
-                ambientDrift.setName(ambientDriftName);
-                ambientDrift.setSharedPrefId(ambientDriftSharedPrefId, true);
-                break;
-
-            case TYPE_NOTIFICATIONS:
-                Log.d(TAG, "8");
-                ToggleOptionsViewHolder notifications    = (ToggleOptionsViewHolder) viewHolder;
-                ToggleConfigItem notificationsConfigItem = (ToggleConfigItem) configItemType;
-
-                int notificationsEnabledResourceIconId  = notificationsConfigItem.getIconEnabledResourceId();
-                int notificationsDisabledIconResourceId = notificationsConfigItem.getIconDisabledResourceId();
-
-                String notificationsName      = notificationsConfigItem.getName();
-                int notificationsSharedPrefId = notificationsConfigItem.getSharedPrefId();
-
-                notifications.setIcons(notificationsEnabledResourceIconId, notificationsDisabledIconResourceId);
-                notifications.setName(notificationsName);
-                notifications.setSharedPrefId(notificationsSharedPrefId, true);
+            case TYPE_TOGGLE:
+                ToggleOptionsViewHolder toggleOptionsViewHolder = (ToggleOptionsViewHolder) viewHolder;
+                toggleOptionsViewHolder.bind((SettingDescriptor) configItemType);
                 break;
         }
     }
@@ -332,6 +185,56 @@ public class ComplicationConfigRecyclerViewAdapter extends RecyclerView.Adapter<
         return settingsDataSet.size();
     }
 
+    @Override
+    public long getItemId(int position) {
+        return settingsDataSet.get(position).getStableId();
+    }
+
+    /**
+     * Replaces the items, binding again only rows that were added, moved, or whose setting
+     * changed since they were bound.
+     */
+    void setItems(final ArrayList<ConfigItemType> items) {
+        final ArrayList<ConfigItemType> oldItems = settingsDataSet;
+        final int changedFlags = boundFlags ^ settingsStore.flags();
+
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldItems.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return items.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return oldItems.get(oldPosition).getStableId() == items.get(newPosition).getStableId();
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                ConfigItemType item = items.get(newPosition);
+                return !(item instanceof SettingDescriptor) || (changedFlags & ((SettingDescriptor) item).getSetting()) == 0;
+            }
+        });
+
+        settingsDataSet = items;
+        boundFlags ^= changedFlags;
+        result.dispatchUpdatesTo(this);
+    }
+
+    /** Fills the recycled view pool with toggle holders so scrolling to them does not inflate. */
+    void prewarm(RecyclerView recyclerView) {
+        RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+        pool.setMaxRecycledViews(TYPE_TOGGLE, PREWARMED_TOGGLES);
+        for (int i = pool.getRecycledViewCount(TYPE_TOGGLE); i < PREWARMED_TOGGLES; i++) {
+            pool.putRecycledView(createViewHolder(recyclerView, TYPE_TOGGLE));
+        }
+    }
+
     /** Updates the selected complication id saved earlier with the new information. */
     void updateSelectedComplication(ComplicationProviderInfo complicationProviderInfo) {
 
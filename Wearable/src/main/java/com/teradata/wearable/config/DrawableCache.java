@@ -0,0 +1,51 @@
+package com.teradata.wearable.config;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+import android.util.LruCache;
+
+/**
+ * Constant states of the drawables used by the config screen, keyed by resource id and screen
+ * density. Handing out a drawable is then a {@link Drawable.ConstantState#newDrawable} instead of
+ * inflating the vector XML again, which is what made toggling a setting stutter.
+ *
+ * Drawables from the same state share it, so a caller that changes one (tint, alpha) must
+ * {@link Drawable#mutate} it first. Only used from the main thread.
+ */
+public class DrawableCache {
+
+    private static final int MAX_ENTRIES = 32;
+
+    private static final LruCache<Long, Drawable.ConstantState> states = new LruCache<>(MAX_ENTRIES);
+
+    private DrawableCache() {
+    }
+
+    /** Returns the drawable, sharing its state with other drawables from the cache. */
+    public static Drawable get(Context context, int resourceId) {
+        Resources resources = context.getResources();
+        Long key = ((long) resources.getDisplayMetrics().densityDpi << 32) | (resourceId & 0xffffffffL);
+
+        Drawable.ConstantState state = states.get(key);
+        if (state == null) {
+            Drawable drawable = context.getDrawable(resourceId);
+            if (drawable == null) {
+                return null;
+            }
+            state = drawable.getConstantState();
+            if (state == null) {
+                // Not shareable; nothing to cache.
+                return drawable;
+            }
+            states.put(key, state);
+            return drawable;
+        }
+        return state.newDrawable(resources, context.getTheme());
+    }
+
+    /** Hit and miss counts, for logging. */
+    public static String stats() {
+        return "hits=" + states.hitCount() + ", misses=" + states.missCount() + ", size=" + states.size();
+    }
+}
@@ -0,0 +1,59 @@
+package com.teradata.wearable.config;
+
+import android.os.SystemClock;
+import android.support.wearable.complications.ComplicationProviderInfo;
+import android.util.SparseArray;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provider info per complication id, as last returned by the provider info retriever, so
+ * reopening the config screen can show the slot icons without querying again. Entries expire
+ * after {@link #TTL_MS} in case providers were changed elsewhere, and are dropped whenever the
+ * user picks a new provider. A null info (no provider set) is cached like any other.
+ *
+ * Only used from the main thread.
+ */
+public class ProviderInfoCache {
+
+    private static final long TTL_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final SparseArray<Entry> entries = new SparseArray<>();
+
+    private static class Entry {
+        final ComplicationProviderInfo info;
+        final long                     expiresAt;
+
+        Entry(ComplicationProviderInfo info, long expiresAt) {
+            this.info      = info;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private ProviderInfoCache() {
+    }
+
+    /** Whether there is an unexpired entry for the complication id. */
+    public static boolean contains(int complicationId) {
+        Entry entry = entries.get(complicationId);
+        if (entry != null && entry.expiresAt <= SystemClock.elapsedRealtime()) {
+            entries.remove(complicationId);
+            entry = null;
+        }
+        return entry != null;
+    }
+
+    /** The cached info; only meaningful if {@link #contains(int)}. */
+    public static ComplicationProviderInfo get(int complicationId) {
+        Entry entry = entries.get(complicationId);
+        return entry != null ? entry.info : null;
+    }
+
+    public static void put(int complicationId, ComplicationProviderInfo info) {
+        entries.put(complicationId, new Entry(info, SystemClock.elapsedRealtime() + TTL_MS));
+    }
+
+    public static void invalidate() {
+        entries.clear();
+    }
+}
@@ -1,17 +1,15 @@
 package com.teradata.wearable.model;
 
-import android.content.Context;
-import android.graphics.Color;
 import android.support.v7.widget.RecyclerView;
 
 import com.teradata.wearable.config.ComplicationConfigRecyclerViewAdapter;
 import com.teradata.wearable.model.configitems.MoreOptionsConfigItem;
 import com.teradata.wearable.model.configitems.PreviewAndComplicationsConfigItem;
-import com.teradata.wearable.model.configitems.ToggleConfigItem;
 import com.teradata.wearable.watchface.TeradataWatchService;
 import com.teradata.wearable.R;
 
 import java.util.ArrayList;
+import java.util.Collections;
 
 /**
  * Settings properties
@@ -26,8 +24,14 @@ public class ComplicationConfigData {
      */
     public interface ConfigItemType {
         int getConfigType();
+
+        /** Identifies the item across list updates; unique within the list and never reused. */
+        long getStableId();
     }
 
+    public static final long STABLE_ID_PREVIEW_AND_COMPLICATIONS = 1;
+    public static final long STABLE_ID_MORE_OPTIONS              = 2;
+
     /**
      * Returns Watch Face Service class associated with configuration Activity.
      */
@@ -39,7 +43,7 @@ public class ComplicationConfigData {
      * Includes all data to populate each of the 3 different custom
      * {@link RecyclerView.ViewHolder} types in {@link ComplicationConfigRecyclerViewAdapter}.
      */
-    public static ArrayList<ConfigItemType> getDataToPopulateAdapter(Context context) {
+    public static ArrayList<ConfigItemType> getDataToPopulateAdapter() {
 
         ArrayList<ConfigItemType> settingsConfigData = new ArrayList<>();
 
@@ -51,59 +55,8 @@ public class ComplicationConfigData {
         ConfigItemType moreOptionsConfigItem = new MoreOptionsConfigItem(R.drawable.ic_expand_more_white_18dp);
         settingsConfigData.add(moreOptionsConfigItem);
 
-        // Show date toggle
-        ConfigItemType showDate = new ToggleConfigItem(
-                context.getString(R.string.always_show_date_label),
-                R.drawable.ic_show_date_on_ambient_screen_24dp,
-                R.drawable.ic_hide_date_on_ambient_screen_24dp,
-                R.string.always_show_date_pref,
-                ComplicationConfigRecyclerViewAdapter.TYPE_SHOW_DATE);
-        settingsConfigData.add(showDate);
-
-        // Show seconds toggle
-        ConfigItemType showSeconds = new ToggleConfigItem(
-                context.getString(R.string.show_seconds_label),
-                R.drawable.ic_show_seconds_24dp,
-                R.drawable.ic_hide_seconds_24dp,
-                R.string.show_seconds_pref,
-                ComplicationConfigRecyclerViewAdapter.TYPE_SHOW_SECONDS);
-        settingsConfigData.add(showSeconds);
-
-        // Show seconds toggle
-        ConfigItemType batteryStatus = new ToggleConfigItem(
-                context.getString(R.string.show_battery_status_label),
-                R.drawable.ic_show_battery_level_24dp,
-                R.drawable.ic_hide_battery_level_24dp,
-                R.string.show_battery_status_pref,
-                ComplicationConfigRecyclerViewAdapter.TYPE_SHOW_BATTERY_STATUS);
-        settingsConfigData.add(batteryStatus);
-
-        // 24 hour clock toggle
-        ConfigItemType militaryTime = new ToggleConfigItem(
-                context.getString(R.string.military_time_label),
-                R.drawable.ic_milirary_time_24_hour_24dp,
-                R.drawable.ic_milirary_time_12_hour_24dp,
-                R.string.military_time_pref,
-                ComplicationConfigRecyclerViewAdapter.TYPE_SHOW_DATE);
-        settingsConfigData.add(militaryTime);
-
-        // ambient drift toggle
-        ConfigItemType ambientDrift = new ToggleConfigItem(
-                context.getString(R.string.ambient_drift_label),
-                R.drawable.ic_random_ambint_drift_24dp,
-                R.drawable.ic_random_ambint_drift_off_24dp,
-                R.string.ambient_drift_pref,
-                ComplicationConfigRecyclerViewAdapter.TYPE_AMBIENT_DRIFT);
-        settingsConfigData.add(ambientDrift);
-
-        // ambient drift toggle
-        ConfigItemType showNotifications = new ToggleConfigItem(
-                context.getString(R.string.config_unread_notifications_label),
-                R.drawable.ic_show_notification_alert_24dp,
-                R.drawable.ic_hide_notification_alert_24dp,
-                R.string.saved_unread_notifications_pref,
-                ComplicationConfigRecyclerViewAdapter.TYPE_NOTIFICATIONS);
-        settingsConfigData.add(showNotifications);
+        // One toggle per registered setting.
+        Collections.addAll(settingsConfigData, SettingsRegistry.SETTINGS);
 
         return settingsConfigData;
     }
@@ -0,0 +1,52 @@
+package com.teradata.wearable.model;
+
+import com.teradata.wearable.R;
+import com.teradata.wearable.model.configitems.SettingDescriptor;
+
+/**
+ * Every user setting, in the order the config screen lists them. To add a setting, give it a
+ * {@link SettingsStore} flag and a descriptor here.
+ */
+public final class SettingsRegistry {
+
+    public static final SettingDescriptor[] SETTINGS = {
+            new SettingDescriptor(100, SettingsStore.SHOW_DATE,
+                    R.string.always_show_date_pref, R.string.always_show_date_label,
+                    R.drawable.ic_show_date_on_ambient_screen_24dp, R.drawable.ic_hide_date_on_ambient_screen_24dp,
+                    false),
+            new SettingDescriptor(101, SettingsStore.SHOW_SECONDS,
+                    R.string.show_seconds_pref, R.string.show_seconds_label,
+                    R.drawable.ic_show_seconds_24dp, R.drawable.ic_hide_seconds_24dp,
+                    false),
+            new SettingDescriptor(102, SettingsStore.BATTERY_STATUS,
+                    R.string.show_battery_status_pref, R.string.show_battery_status_label,
+                    R.drawable.ic_show_battery_level_24dp, R.drawable.ic_hide_battery_level_24dp,
+                    true),
+            new SettingDescriptor(103, SettingsStore.MILITARY_TIME,
+                    R.string.military_time_pref, R.string.military_time_label,
+                    R.drawable.ic_milirary_time_24_hour_24dp, R.drawable.ic_milirary_time_12_hour_24dp,
+                    true),
+            new SettingDescriptor(104, SettingsStore.AMBIENT_DRIFT,
+                    R.string.ambient_drift_pref, R.string.ambient_drift_label,
+                    R.drawable.ic_random_ambint_drift_24dp, R.drawable.ic_random_ambint_drift_off_24dp,
+                    true),
+            new SettingDescriptor(105, SettingsStore.SHOW_NOTIFICATIONS,
+                    R.string.saved_unread_notifications_pref, R.string.config_unread_notifications_label,
+                    R.drawable.ic_show_notification_alert_24dp, R.drawable.ic_hide_notification_alert_24dp,
+                    true),
+    };
+
+    private SettingsRegistry() {
+    }
+
+    /** The flags of every setting that is on by default. */
+    static int defaultFlags() {
+        int flags = 0;
+        for (SettingDescriptor descriptor : SETTINGS) {
+            if (descriptor.getDefaultValue()) {
+                flags |= descriptor.getSetting();
+            }
+        }
+        return flags;
+    }
+}
@@ -0,0 +1,291 @@
+package com.teradata.wearable.model;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.teradata.wearable.R;
+import com.teradata.wearable.model.configitems.SettingDescriptor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The customization settings, shared by the config activity and the watch face through a small
+ * memory-mapped file with a fixed layout:
+ *
+ * <pre>
+ *   0  magic
+ *   4  record version
+ *   8  change sequence, odd while a write is in progress
+ *  12  setting flags
+ *  16  checksum of version, sequence and flags
+ *  20  copy of the setting flags
+ *  24  checksum of the copy
+ * </pre>
+ *
+ * Writers bump the sequence to odd, write the record and bump it back to even, so readers can
+ * tell a torn or concurrent write apart from a complete one. The copy is written after the
+ * record is complete, so one of the two always holds the user's last complete settings. A reader
+ * that only wants to know whether anything changed compares {@link #sequence()} with the value it
+ * saw last.
+ *
+ * Changes made with {@link #set} are held back for {@link #PUBLISH_DELAY_MS}, so a burst of
+ * toggles becomes one record update and one {@link Listener} call. The mapped page is only forced
+ * to disk by {@link #flush()}, once per config session.
+ *
+ * Created the first time from the preferences in {@code analog_complication_preference_file_key}.
+ */
+public class SettingsStore {
+
+    private static final String TAG = SettingsStore.class.getSimpleName();
+
+    public static final int MILITARY_TIME      = 1;
+    public static final int SHOW_DATE          = 1 << 1;
+    public static final int AMBIENT_DRIFT      = 1 << 2;
+    public static final int SHOW_SECONDS       = 1 << 3;
+    public static final int BATTERY_STATUS     = 1 << 4;
+    public static final int SHOW_NOTIFICATIONS = 1 << 5;
+
+    /** Settings only ever use the bits in this mask. */
+    public static final int SETTINGS_MASK = 0xffff;
+
+    public static final int DEFAULT_FLAGS = SettingsRegistry.defaultFlags();
+
+    private static final String FILE_NAME = "settings.bin";
+    private static final int    MAGIC     = 0x54445753; // "TDWS"
+    private static final int    VERSION   = 1;
+    private static final int    SIZE      = 32;
+
+    private static final int OFFSET_MAGIC    = 0;
+    private static final int OFFSET_VERSION  = 4;
+    private static final int OFFSET_SEQUENCE = 8;
+    private static final int OFFSET_FLAGS    = 12;
+    private static final int OFFSET_CHECKSUM = 16;
+    private static final int OFFSET_COPY     = 20;
+    private static final int OFFSET_COPY_SUM = 24;
+
+    // Attempts at a consistent read before treating the record as damaged.
+    private static final int READ_ATTEMPTS = 64;
+
+    static final long PUBLISH_DELAY_MS = 400;
+
+    /** Told on the main thread whenever new settings are published in this process. */
+    public interface Listener {
+        void onSettingsChanged(int sequence, int flags);
+    }
+
+    private static SettingsStore instance;
+
+    private final Context        context;
+    private final ByteBuffer     buffer;
+    private final Handler        handler   = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new ArrayList<>();
+
+    // Changes not yet published, and whether there are any.
+    private int     pendingFlags;
+    private boolean pending;
+    private boolean unsynced;
+
+    private final Runnable publisher = new Runnable() {
+        @Override
+        public void run() {
+            publish();
+        }
+    };
+
+    // Last complete record this process saw, if any; preferred when the file is found damaged.
+    private int     lastFlags = DEFAULT_FLAGS;
+    private boolean lastFlagsKnown;
+
+    private SettingsStore(Context context, ByteBuffer buffer) {
+        this.context = context;
+        this.buffer  = buffer;
+    }
+
+    /** Returns the process-wide store, opening or creating the file on first use. */
+    public static synchronized SettingsStore get(Context context) {
+        if (instance == null) {
+            instance = open(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private static SettingsStore open(Context context) {
+        ByteBuffer buffer;
+        File file = new File(context.getFilesDir(), FILE_NAME);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // The mapping stays valid after the channel is closed.
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to map " + file + ", settings will not be shared", e);
+            buffer = ByteBuffer.allocate(SIZE);
+        }
+
+        SettingsStore store = new SettingsStore(context, buffer);
+        if (buffer.getInt(OFFSET_MAGIC) != MAGIC || buffer.getInt(OFFSET_VERSION) != VERSION) {
+            // New file or an unknown layout: carry over the XML preferences.
+            buffer.putInt(OFFSET_MAGIC, MAGIC);
+            buffer.putInt(OFFSET_VERSION, VERSION);
+            store.write(migrate(context));
+            store.sync();
+        }
+        return store;
+    }
+
+    private static int migrate(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences(
+                context.getString(R.string.analog_complication_preference_file_key), Context.MODE_PRIVATE);
+
+        int flags = DEFAULT_FLAGS;
+        for (SettingDescriptor descriptor : SettingsRegistry.SETTINGS) {
+            int setting = descriptor.getSetting();
+            if (preferences.getBoolean(context.getString(descriptor.getPreferenceKeyResourceId()), descriptor.getDefaultValue())) {
+                flags |= setting;
+            } else {
+                flags &= ~setting;
+            }
+        }
+        return flags;
+    }
+
+    /** The change sequence; differs from an earlier value if anything was written since. */
+    public int sequence() {
+        return buffer.getInt(OFFSET_SEQUENCE);
+    }
+
+    /** Returns the current setting flags, including changes not published yet. */
+    public synchronized int flags() {
+        if (pending) {
+            return pendingFlags;
+        }
+        for (int attempt = 0; attempt < READ_ATTEMPTS; attempt++) {
+            int sequence = buffer.getInt(OFFSET_SEQUENCE);
+            int flags    = buffer.getInt(OFFSET_FLAGS);
+            int checksum = buffer.getInt(OFFSET_CHECKSUM);
+            if ((sequence & 1) == 0 && sequence == buffer.getInt(OFFSET_SEQUENCE)
+                    && checksum == checksum(sequence, flags)) {
+                lastFlags      = flags;
+                lastFlagsKnown = true;
+                return flags;
+            }
+            Thread.yield();
+        }
+
+        // Left half written by a process that died. Never fall back to the defaults, which
+        // would wipe the user's choices: restore what this process last read, else the copy,
+        // else the XML preferences the store was first created from.
+        int flags;
+        if (lastFlagsKnown) {
+            Log.w(TAG, "Settings record is damaged, restoring the last one read");
+            flags = lastFlags;
+        } else if (buffer.getInt(OFFSET_COPY_SUM) == copyChecksum(buffer.getInt(OFFSET_COPY))) {
+            Log.w(TAG, "Settings record is damaged, restoring its copy");
+            flags = buffer.getInt(OFFSET_COPY);
+        } else {
+            Log.w(TAG, "Settings record and copy are damaged, migrating again");
+            flags = migrate(context);
+        }
+        write(flags);
+        sync();
+        return flags;
+    }
+
+    public boolean isSet(int setting) {
+        return (flags() & setting) != 0;
+    }
+
+    /** Sets or clears one setting; published shortly after the last of a burst of changes. */
+    public synchronized void set(int setting, boolean value) {
+        int flags = flags();
+        pendingFlags = value ? flags | setting : flags & ~setting;
+        pending      = true;
+
+        handler.removeCallbacks(publisher);
+        handler.postDelayed(publisher, PUBLISH_DELAY_MS);
+    }
+
+    /** Publishes any pending change and writes the record to disk. */
+    public void flush() {
+        handler.removeCallbacks(publisher);
+        publish();
+        synchronized (this) {
+            if (unsynced) {
+                sync();
+            }
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void publish() {
+        int sequence;
+        int flags;
+        synchronized (this) {
+            if (!pending) {
+                return;
+            }
+            pending = false;
+            if (pendingFlags == lastFlags) {
+                // Toggled back and forth; nothing to tell anyone.
+                return;
+            }
+            flags    = pendingFlags;
+            sequence = write(flags);
+            unsynced = true;
+        }
+
+        Listener[] targets = listeners.toArray(new Listener[listeners.size()]);
+        for (Listener listener : targets) {
+            listener.onSettingsChanged(sequence, flags);
+        }
+    }
+
+    /** Writes the record to the mapped page and returns the new sequence. */
+    private synchronized int write(int flags) {
+        int sequence = buffer.getInt(OFFSET_SEQUENCE) | 1;
+        buffer.putInt(OFFSET_SEQUENCE, sequence);
+        buffer.putInt(OFFSET_FLAGS, flags);
+        buffer.putInt(OFFSET_CHECKSUM, checksum(sequence + 1, flags));
+        buffer.putInt(OFFSET_SEQUENCE, sequence + 1);
+        buffer.putInt(OFFSET_COPY, flags);
+        buffer.putInt(OFFSET_COPY_SUM, copyChecksum(flags));
+        lastFlags      = flags;
+        lastFlagsKnown = true;
+        return sequence + 1;
+    }
+
+    private synchronized void sync() {
+        unsynced = false;
+        if (buffer instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) buffer).force();
+        }
+    }
+
+    private static int checksum(int sequence, int flags) {
+        int hash = MAGIC;
+        hash = hash * 31 + VERSION;
+        hash = hash * 31 + sequence;
+        hash = hash * 31 + flags;
+        return hash;
+    }
+
+    // Seeded differently from the record's, so a zeroed copy never passes.
+    private static int copyChecksum(int flags) {
+        return ~checksum(0, flags);
+    }
+}
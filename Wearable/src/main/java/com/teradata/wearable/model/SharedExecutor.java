@@ -0,0 +1,44 @@
+package com.teradata.wearable.model;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide background executor for short jobs such as provider info queries, resource
+ * loading and comparing complication updates. Bounded to two threads, which time out when idle, so opening screens repeatedly never
+ * leaves a growing pool of threads behind.
+ */
+public final class SharedExecutor {
+
+    private static final int  THREADS         = 2;
+    private static final long KEEP_ALIVE_SECS = 30;
+
+    private static final Executor EXECUTOR;
+
+    static {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, KEEP_ALIVE_SECS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "teradata-background-" + count.incrementAndGet());
+                        thread.setPriority(Thread.MIN_PRIORITY);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        EXECUTOR = executor;
+    }
+
+    private SharedExecutor() {
+    }
+
+    public static Executor get() {
+        return EXECUTOR;
+    }
+}
@@ -0,0 +1,71 @@
+package com.teradata.wearable.model;
+
+import android.os.SystemClock;
+
+import com.teradata.wearable.BuildConfig;
+
+import java.io.PrintWriter;
+
+/**
+ * Process-wide trace of recent events, for the paths that run every tick or frame where logcat
+ * would cost string building and a binder call each time. An event is a code and one long value,
+ * written with its time into a fixed ring buffer; names are only looked up when dumped.
+ *
+ * <p>Call sites guard with {@code if (BuildConfig.TRACING)}, so release builds compile them out
+ * and never allocate the buffer.
+ */
+public final class TraceLog {
+
+    public static final int TIMER_FIRED          = 0;
+    public static final int TAP                  = 1;
+    public static final int COMPLICATION_TAP     = 2;
+    public static final int COMPLICATION_UPDATE  = 3;
+    public static final int COMPLICATION_BATCH   = 4;
+    public static final int VISIBILITY           = 5;
+    public static final int UNREAD_COUNT         = 6;
+    public static final int MUTE_MODE            = 7;
+    public static final int DATE_CHANGE          = 8;
+    public static final int CREATE_VIEW_HOLDER   = 9;
+    public static final int BIND_VIEW_HOLDER     = 10;
+    public static final int TOGGLE               = 11;
+    public static final int PROVIDER_INFO        = 12;
+    public static final int AMBIENT_LEVEL        = 13;
+
+    private static final String[] NAMES = {
+            "timer fired", "tap", "complication tap", "complication update", "complication batch",
+            "visibility", "unread count", "mute mode", "date change", "create view holder",
+            "bind view holder", "toggle", "provider info", "ambient level"
+    };
+
+    // Must be a power of two.
+    private static final int CAPACITY = 512;
+
+    private static final int[]  codes  = BuildConfig.TRACING ? new int[CAPACITY]  : null;
+    private static final long[] times  = BuildConfig.TRACING ? new long[CAPACITY] : null;
+    private static final long[] values = BuildConfig.TRACING ? new long[CAPACITY] : null;
+    private static long         count;
+
+    private TraceLog() {
+    }
+
+    /** Records an event; {@code value} is whatever the event's code says it is. */
+    public static synchronized void trace(int code, long value) {
+        int slot = (int) (count++ & (CAPACITY - 1));
+        codes[slot]  = code;
+        times[slot]  = SystemClock.elapsedRealtime();
+        values[slot] = value;
+    }
+
+    /** Writes the buffered events, oldest first, with their age in milliseconds. */
+    public static synchronized void dump(String prefix, PrintWriter writer) {
+        long now   = SystemClock.elapsedRealtime();
+        long first = Math.max(0, count - CAPACITY);
+        writer.print(prefix);
+        writer.println("Trace: " + (count - first) + " of " + count + " events");
+        for (long i = first; i < count; i++) {
+            int slot = (int) (i & (CAPACITY - 1));
+            writer.print(prefix);
+            writer.println("  -" + (now - times[slot]) + " ms " + NAMES[codes[slot]] + " " + values[slot]);
+        }
+    }
+}
@@ -19,6 +19,11 @@ public class MoreOptionsConfigItem implements ComplicationConfigData.ConfigItemT
         return iconResourceId;
     }
 
+    @Override
+    public long getStableId() {
+        return ComplicationConfigData.STABLE_ID_MORE_OPTIONS;
+    }
+
     @Override
     public int getConfigType() {
         return ComplicationConfigRecyclerViewAdapter.TYPE_MORE_OPTIONS;
@@ -19,6 +19,11 @@ public class PreviewAndComplicationsConfigItem implements ComplicationConfigData
         return defaultComplicationResourceId;
     }
 
+    @Override
+    public long getStableId() {
+        return ComplicationConfigData.STABLE_ID_PREVIEW_AND_COMPLICATIONS;
+    }
+
     @Override
     public int getConfigType() {
         return ComplicationConfigRecyclerViewAdapter.TYPE_PREVIEW_AND_COMPLICATIONS_CONFIG;
@@ -0,0 +1,70 @@
+package com.teradata.wearable.model.configitems;
+
+import com.teradata.wearable.config.ComplicationConfigRecyclerViewAdapter;
+import com.teradata.wearable.model.ComplicationConfigData;
+import com.teradata.wearable.model.SettingsStore;
+
+/**
+ * Describes one on/off setting: where it is stored, its default, and how the config list shows
+ * it. Every setting shares the toggle view type, so adding one needs no layout or adapter code.
+ */
+public class SettingDescriptor implements ComplicationConfigData.ConfigItemType {
+
+    private final long stableId;
+    private final int  setting;
+    private final int  preferenceKeyResourceId;
+    private final int  labelResourceId;
+    private final int  iconEnabledResourceId;
+    private final int  iconDisabledResourceId;
+    private final boolean defaultValue;
+
+    /**
+     * @param stableId                adapter id, must never change or be reused.
+     * @param setting                 the {@link SettingsStore} flag holding the value.
+     * @param preferenceKeyResourceId the key the value was kept under in the XML preferences.
+     */
+    public SettingDescriptor(long stableId, int setting, int preferenceKeyResourceId, int labelResourceId,
+                             int iconEnabledResourceId, int iconDisabledResourceId, boolean defaultValue) {
+        this.stableId                = stableId;
+        this.setting                 = setting;
+        this.preferenceKeyResourceId = preferenceKeyResourceId;
+        this.labelResourceId         = labelResourceId;
+        this.iconEnabledResourceId   = iconEnabledResourceId;
+        this.iconDisabledResourceId  = iconDisabledResourceId;
+        this.defaultValue            = defaultValue;
+    }
+
+    public int getSetting() {
+        return setting;
+    }
+
+    public int getPreferenceKeyResourceId() {
+        return preferenceKeyResourceId;
+    }
+
+    public int getLabelResourceId() {
+        return labelResourceId;
+    }
+
+    public int getIconEnabledResourceId() {
+        return iconEnabledResourceId;
+    }
+
+    public int getIconDisabledResourceId() {
+        return iconDisabledResourceId;
+    }
+
+    public boolean getDefaultValue() {
+        return defaultValue;
+    }
+
+    @Override
+    public long getStableId() {
+        return stableId;
+    }
+
+    @Override
+    public int getConfigType() {
+        return ComplicationConfigRecyclerViewAdapter.TYPE_TOGGLE;
+    }
+}
@@ -6,6 +6,7 @@ import android.view.View;
 import android.widget.ImageView;
 
 import com.teradata.wearable.R;
+import com.teradata.wearable.config.DrawableCache;
 
 /**
  * Displays icon to indicate there are more options below the fold.
@@ -22,6 +23,6 @@ public class MoreOptionsViewHolder extends RecyclerView.ViewHolder {
 
     public void setIcon(int resourceId) {
         Context context = mMoreOptionsImageView.getContext();
-        mMoreOptionsImageView.setImageDrawable(context.getDrawable(resourceId));
+        mMoreOptionsImageView.setImageDrawable(DrawableCache.get(context, resourceId));
     }
 }
\ No newline at end of file
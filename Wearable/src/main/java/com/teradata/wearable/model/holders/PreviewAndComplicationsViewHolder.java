@@ -14,10 +14,16 @@ import android.view.View;
 import android.widget.ImageButton;
 import android.widget.ImageView;
 
+import com.teradata.wearable.BuildConfig;
 import com.teradata.wearable.R;
 import com.teradata.wearable.config.ComplicationConfigRecyclerViewAdapter;
+import com.teradata.wearable.config.DrawableCache;
+import com.teradata.wearable.config.ProviderInfoCache;
+import com.teradata.wearable.model.TraceLog;
 import com.teradata.wearable.watchface.TeradataWatchService;
 
+import java.util.Arrays;
+
 /**
  * Displays watch face preview along with complication locations. Allows user to tap on the
  * complication they want to change and preview updates dynamically.
@@ -96,16 +102,18 @@ public class PreviewAndComplicationsViewHolder extends RecyclerView.ViewHolder i
     }
 
     public void setDefaultComplicationDrawable(int resourceId) {
-        defaultAddComplicationDrawable = context.getDrawable(resourceId);
+        defaultAddComplicationDrawable = DrawableCache.get(context, resourceId);
     }
 
     public void updateComplicationViews(ComplicationProviderInfo complicationProviderInfo) {
+        if (selectedComplicationId >= 0) {
+            ProviderInfoCache.put(selectedComplicationId, complicationProviderInfo);
+        }
         updateComplicationViews(selectedComplicationId, complicationProviderInfo);
     }
 
     private void updateComplicationViews (int complicationId, ComplicationProviderInfo complicationProviderInfo) {
-        Log.d(TAG, "updateComplicationViews(): id: " + complicationId);
-        Log.d(TAG, "\tinfo: " + complicationProviderInfo);
+        if (BuildConfig.TRACING) TraceLog.trace(TraceLog.PROVIDER_INFO, complicationId);
 
         if (complicationId == complicationUpperId) {
             if (complicationProviderInfo != null) {
@@ -124,7 +132,20 @@ public class PreviewAndComplicationsViewHolder extends RecyclerView.ViewHolder i
 
     public void initializesColorsAndComplications(ProviderInfoRetriever providerInfoRetriever) {
 
-        final int[] complicationIds = TeradataWatchService.getComplicationIds();
+        // Show what is cached straight away and only ask for the rest.
+        int[] complicationIds = TeradataWatchService.getComplicationIds();
+        int[] missingIds      = new int[complicationIds.length];
+        int   missing         = 0;
+        for (int complicationId : complicationIds) {
+            if (ProviderInfoCache.contains(complicationId)) {
+                updateComplicationViews(complicationId, ProviderInfoCache.get(complicationId));
+            } else {
+                missingIds[missing++] = complicationId;
+            }
+        }
+        if (missing == 0) {
+            return;
+        }
 
         providerInfoRetriever.retrieveProviderInfo(
                 new ProviderInfoRetriever.OnProviderInfoReceivedCallback() {
@@ -132,12 +153,12 @@ public class PreviewAndComplicationsViewHolder extends RecyclerView.ViewHolder i
                     public void onProviderInfoReceived(
                             int watchFaceComplicationId,
                             @Nullable ComplicationProviderInfo complicationProviderInfo) {
-                        Log.d(TAG, "onProviderInfoReceived: " + complicationProviderInfo);
+                        ProviderInfoCache.put(watchFaceComplicationId, complicationProviderInfo);
                         updateComplicationViews(watchFaceComplicationId, complicationProviderInfo);
                     }
                 },
                 watchFaceComponentName,
-                complicationIds);
+                Arrays.copyOf(missingIds, missing));
     }
 }
 
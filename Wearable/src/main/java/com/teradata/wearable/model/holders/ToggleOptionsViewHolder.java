@@ -1,63 +1,61 @@
 package com.teradata.wearable.model.holders;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.support.v7.widget.RecyclerView;
-import android.util.Log;
 import android.view.View;
 import android.widget.Switch;
 
+import com.teradata.wearable.BuildConfig;
+import com.teradata.wearable.config.DrawableCache;
+import com.teradata.wearable.model.SettingsStore;
+import com.teradata.wearable.model.TraceLog;
+import com.teradata.wearable.model.configitems.SettingDescriptor;
+
 /**
  * Simple view holder for toggleable setting entries
  * Created by jason on 3/17/18.
  */
 public class ToggleOptionsViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
 
-    private static final String TAG = ToggleOptionsViewHolder.class.getSimpleName();
-
     private Switch toggleSwitch;
 
     private int enabledIconResourceId;
     private int disabledIconResourceId;
 
-    private int sharedPrefResourceId;
+    private int setting;
 
-    private SharedPreferences sharedPreferences;
+    private SettingsStore settingsStore;
 
-    public ToggleOptionsViewHolder(View view, SharedPreferences sharedPreferences, int resourceId) {
+    public ToggleOptionsViewHolder(View view, SettingsStore settingsStore, int resourceId) {
         super(view);
 
-        this.sharedPreferences = sharedPreferences;
+        this.settingsStore     = settingsStore;
         this.toggleSwitch      = view.findViewById(resourceId);
-        Log.d(TAG, "is null: " + (toggleSwitch == null) + ", resourceId: " + resourceId);
         view.setOnClickListener(this);
     }
 
+    /** Shows the given setting; holders are shared by every setting. */
+    public void bind(SettingDescriptor descriptor) {
+        setName(toggleSwitch.getContext().getString(descriptor.getLabelResourceId()));
+        setIcons(descriptor.getIconEnabledResourceId(), descriptor.getIconDisabledResourceId());
+        setSetting(descriptor.getSetting());
+    }
+
     public void setName(String name) {
         toggleSwitch.setText(name);
     }
 
+    // The icon itself is set by setSetting(), once the state is known.
     public void setIcons(int enabledIconResourceId, int disabledIconResourceId) {
-
         this.enabledIconResourceId = enabledIconResourceId;
         this.disabledIconResourceId = disabledIconResourceId;
-
-        Context context = toggleSwitch.getContext();
-
-        // Set default to enabled.
-        toggleSwitch.setCompoundDrawablesWithIntrinsicBounds(
-                context.getDrawable(this.enabledIconResourceId), null, null, null);
     }
 
-    public void setSharedPrefId(int sharedPrefId, boolean defaultState) {
-        sharedPrefResourceId = sharedPrefId;
+    public void setSetting(int setting) {
+        this.setting = setting;
 
         if (toggleSwitch != null) {
-            Context context = toggleSwitch.getContext();
-            String sharedPreferenceString = context.getString(sharedPrefResourceId);
-            Boolean currentState = sharedPreferences.getBoolean(sharedPreferenceString, sharedPreferences.getBoolean(sharedPreferenceString, defaultState));
-
-            updateIcon(context, currentState);
+            updateIcon(toggleSwitch.getContext(), settingsStore.isSet(setting));
         }
     }
 
@@ -72,23 +70,20 @@ public class ToggleOptionsViewHolder extends RecyclerView.ViewHolder implements
 
         toggleSwitch.setChecked(currentState);
         toggleSwitch.setCompoundDrawablesWithIntrinsicBounds(
-                context.getDrawable(currentIconResourceId), null, null, null);
+                DrawableCache.get(context, currentIconResourceId), null, null, null);
     }
 
     @Override
     public void onClick(View view) {
         int position = getAdapterPosition();
-        Log.d(TAG, "Complication onClick() position: " + position);
+        if (BuildConfig.TRACING) TraceLog.trace(TraceLog.TOGGLE, position);
 
         Context context = view.getContext();
-        String sharedPreferenceString = context.getString(sharedPrefResourceId);
 
         // Since user clicked on a switch, new state should be opposite of current state.
-        Boolean newState = !sharedPreferences.getBoolean(sharedPreferenceString, true);
-
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        editor.putBoolean(sharedPreferenceString, newState);
-        editor.apply();
+        // The store batches rapid taps and publishes them together.
+        boolean newState = !settingsStore.isSet(setting);
+        settingsStore.set(setting, newState);
 
         updateIcon(context, newState);
     }
@@ -0,0 +1,57 @@
+package com.teradata.wearable.watchface;
+
+/**
+ * Precomputed schedule of ambient pixel shifts. The offsets are spread evenly over the safe
+ * region (an ellipse of {@code sizeX} by {@code sizeY} to the left of the resting position) using
+ * a golden-angle spiral, so consecutive steps land far apart and the whole region is covered
+ * once per cycle. Looking up an offset is two array reads; no trigonometry or random numbers are
+ * needed when the watch wakes up.
+ */
+final class AmbientDriftPath {
+
+    /** Number of positions in the cycle; one step per minute gives an hour long cycle. */
+    static final int STEPS = 60;
+
+    private static final double GOLDEN_ANGLE = Math.PI * (3 - Math.sqrt(5));
+    private static final long   STEP_MILLIS  = 60 * 1000;
+
+    private final int   sizeX;
+    private final int   sizeY;
+    private final int[] offsetsX = new int[STEPS];
+    private final int[] offsetsY = new int[STEPS];
+
+    AmbientDriftPath(int sizeX, int sizeY) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+
+        // Nothing to spread over on screens too small to drift.
+        if (sizeX <= 0 || sizeY <= 0) {
+            return;
+        }
+
+        for (int i = 0; i < STEPS; i++) {
+            double radius = Math.sqrt((i + 0.5) / STEPS);
+            double angle  = i * GOLDEN_ANGLE;
+            offsetsX[i] = (int) Math.round(sizeX * (radius * Math.cos(angle) - 1));
+            offsetsY[i] = (int) Math.round(sizeY * radius * Math.sin(angle));
+        }
+    }
+
+    /** Whether this path was built for the given drift range. */
+    boolean isFor(int sizeX, int sizeY) {
+        return this.sizeX == sizeX && this.sizeY == sizeY;
+    }
+
+    /** The step to show at the given time; advances once a minute. */
+    int stepAt(long timeMillis) {
+        return (int) ((timeMillis / STEP_MILLIS) % STEPS);
+    }
+
+    int offsetX(int step) {
+        return offsetsX[step];
+    }
+
+    int offsetY(int step) {
+        return offsetsY[step];
+    }
+}
@@ -0,0 +1,97 @@
+package com.teradata.wearable.watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.support.wearable.complications.ComplicationData;
+import android.support.wearable.complications.ComplicationText;
+import android.support.wearable.complications.rendering.ComplicationDrawable;
+
+/**
+ * Offscreen copy of one complication slot. The slot is rendered through its
+ * {@link ComplicationDrawable} only when something it depends on changed: new data, new bounds,
+ * a property or mode change, or time dependent text or an activity window moving on. Every
+ * other frame blits the cached bitmap.
+ */
+final class ComplicationCache {
+
+    private final Rect bounds = new Rect();
+    private Bitmap     bitmap;
+    private Canvas     canvas;
+    private boolean    dirty = true;
+    private long       renderedAt;
+
+    /** Forces the slot to be rendered again on the next draw. */
+    void invalidate() {
+        dirty = true;
+    }
+
+    /** Whether the next draw will render the slot again rather than blit the cached copy. */
+    boolean isStale(ComplicationData data, long currentTimeMillis) {
+        return dirty || changedBetween(data, renderedAt, currentTimeMillis);
+    }
+
+    void setBounds(Rect newBounds) {
+        if (bounds.equals(newBounds) && bitmap != null) {
+            return;
+        }
+        bounds.set(newBounds);
+        release();
+        if (!bounds.isEmpty()) {
+            bitmap = Bitmap.createBitmap(bounds.width(), bounds.height(), Bitmap.Config.ARGB_8888);
+            canvas = new Canvas(bitmap);
+        }
+        dirty = true;
+    }
+
+    void draw(Canvas target, ComplicationDrawable drawable, ComplicationData data, long currentTimeMillis) {
+        if (bitmap == null) {
+            return;
+        }
+
+        if (isStale(data, currentTimeMillis)) {
+            // Cleared first so an invalidation raised while drawing is not lost.
+            dirty      = false;
+            renderedAt = currentTimeMillis;
+
+            bitmap.eraseColor(Color.TRANSPARENT);
+            canvas.save();
+            canvas.translate(-bounds.left, -bounds.top);
+            drawable.draw(canvas, currentTimeMillis);
+            canvas.restore();
+        }
+        target.drawBitmap(bitmap, bounds.left, bounds.top, null);
+    }
+
+    int byteCount() {
+        return bitmap != null ? bitmap.getAllocationByteCount() : 0;
+    }
+
+    void release() {
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+            canvas = null;
+        }
+    }
+
+    /**
+     * Whether the data renders differently at {@code to} than it did at {@code from}, because it
+     * became active or inactive or any of its text is time dependent and has changed.
+     */
+    static boolean changedBetween(ComplicationData data, long from, long to) {
+        if (data == null) {
+            return false;
+        }
+        return data.isActive(from) != data.isActive(to)
+                || textChangedBetween(data.getShortText(), from, to)
+                || textChangedBetween(data.getShortTitle(), from, to)
+                || textChangedBetween(data.getLongText(), from, to)
+                || textChangedBetween(data.getLongTitle(), from, to);
+    }
+
+    private static boolean textChangedBetween(ComplicationText text, long from, long to) {
+        return text != null && !text.returnsSameText(from, to);
+    }
+}
@@ -0,0 +1,191 @@
+package com.teradata.wearable.watchface;
+
+import java.util.Arrays;
+
+/**
+ * Registry of the complication slots drawn on the face: their ids, bounds as fractions of the
+ * surface and supported data types. Everything is kept in primitive arrays indexed by slot, and
+ * taps are resolved through a coarse grid of the surface rebuilt by {@link #layout(int, int)}, so
+ * neither drawing nor hit testing costs more as slots are added.
+ *
+ * Has no Android dependencies so it can be exercised on a plain JVM.
+ */
+final class ComplicationSlots {
+
+    static final int NONE = -1;
+
+    // log2 of the hit grid cell side; cells are 8 pixels square.
+    static final int CELL_SHIFT = 3;
+
+    // Grid value of a cell touched by more than one slot.
+    private static final byte SHARED = -2;
+
+    private final int     count;
+    private final int[]   ids;
+    private final float[] fractions;      // left, top, size per slot
+    private final int[][] supportedTypes;
+
+    // Slot index per id, NONE for ids without a slot.
+    private final int[] indexById;
+
+    // Pixel bounds per slot for the current surface: left, top, right, bottom.
+    private final int[] bounds;
+
+    private int    width;
+    private int    height;
+    private int    columns;
+    private byte[] grid = new byte[0];
+
+    private ComplicationSlots(Builder builder) {
+        count          = builder.count;
+        ids            = Arrays.copyOf(builder.ids, count);
+        fractions      = Arrays.copyOf(builder.fractions, count * 3);
+        supportedTypes = Arrays.copyOf(builder.supportedTypes, count);
+        bounds         = new int[count * 4];
+
+        int maxId = -1;
+        for (int i = 0; i < count; i++) {
+            maxId = Math.max(maxId, ids[i]);
+        }
+        indexById = new int[maxId + 1];
+        Arrays.fill(indexById, NONE);
+        for (int i = 0; i < count; i++) {
+            indexById[ids[i]] = i;
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    int id(int slot) {
+        return ids[slot];
+    }
+
+    /** A copy of the slot ids in slot order. */
+    int[] ids() {
+        return ids.clone();
+    }
+
+    /** The slot showing the given complication id, or {@link #NONE}. */
+    int indexOf(int complicationId) {
+        return complicationId >= 0 && complicationId < indexById.length ? indexById[complicationId] : NONE;
+    }
+
+    int[] supportedTypes(int slot) {
+        return supportedTypes[slot];
+    }
+
+    int left(int slot)   { return bounds[slot * 4];     }
+    int top(int slot)    { return bounds[slot * 4 + 1]; }
+    int right(int slot)  { return bounds[slot * 4 + 2]; }
+    int bottom(int slot) { return bounds[slot * 4 + 3]; }
+
+    /**
+     * Works out the pixel bounds of every slot for a surface and rebuilds the hit grid. Slots are
+     * square, sized from the width and rounded down to an even number of pixels.
+     */
+    void layout(int width, int height) {
+        if (width == this.width && height == this.height) {
+            return;
+        }
+        this.width  = width;
+        this.height = height;
+
+        for (int i = 0; i < count; i++) {
+            int size = (int) (width * fractions[i * 3 + 2]);
+            if (size % 2 == 1) size--;
+            int left = Math.round(width  * fractions[i * 3]);
+            int top  = Math.round(height * fractions[i * 3 + 1]);
+            bounds[i * 4]     = left;
+            bounds[i * 4 + 1] = top;
+            bounds[i * 4 + 2] = left + size;
+            bounds[i * 4 + 3] = top  + size;
+        }
+
+        columns  = (width  + (1 << CELL_SHIFT) - 1) >> CELL_SHIFT;
+        int rows = (height + (1 << CELL_SHIFT) - 1) >> CELL_SHIFT;
+        if (grid.length != columns * rows) {
+            grid = new byte[columns * rows];
+        }
+        Arrays.fill(grid, (byte) NONE);
+
+        for (int i = 0; i < count; i++) {
+            int firstColumn = Math.max(0, left(i) >> CELL_SHIFT);
+            int lastColumn  = Math.min(columns - 1, (right(i) - 1) >> CELL_SHIFT);
+            int firstRow    = Math.max(0, top(i) >> CELL_SHIFT);
+            int lastRow     = Math.min(rows - 1, (bottom(i) - 1) >> CELL_SHIFT);
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    int cell = row * columns + column;
+                    grid[cell] = grid[cell] == NONE ? (byte) i : SHARED;
+                }
+            }
+        }
+    }
+
+    /** The slot containing the point, or {@link #NONE}. */
+    int slotAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return NONE;
+        }
+        int slot = grid[(y >> CELL_SHIFT) * columns + (x >> CELL_SHIFT)];
+        if (slot == SHARED) {
+            // Only cells on the edge of touching slots get here.
+            for (int i = 0; i < count; i++) {
+                if (contains(i, x, y)) {
+                    return i;
+                }
+            }
+            return NONE;
+        }
+        return slot != NONE && contains(slot, x, y) ? slot : NONE;
+    }
+
+    private boolean contains(int slot, int x, int y) {
+        return x >= left(slot) && x < right(slot) && y >= top(slot) && y < bottom(slot);
+    }
+
+    static final class Builder {
+
+        // The grid stores slot indices in bytes.
+        private static final int MAX_SLOTS = Byte.MAX_VALUE;
+
+        private int     count;
+        private int[]   ids            = new int[4];
+        private float[] fractions      = new float[4 * 3];
+        private int[][] supportedTypes = new int[4][];
+
+        /**
+         * Adds a square slot.
+         *
+         * @param left fraction of the surface width to the left edge.
+         * @param top  fraction of the surface height to the top edge.
+         * @param size fraction of the surface width taken by each side.
+         */
+        Builder add(int id, float left, float top, float size, int... types) {
+            if (id < 0) {
+                throw new IllegalArgumentException("Negative complication id " + id);
+            }
+            if (count == MAX_SLOTS) {
+                throw new IllegalStateException("Too many complication slots");
+            }
+            if (count == ids.length) {
+                ids            = Arrays.copyOf(ids, count * 2);
+                fractions      = Arrays.copyOf(fractions, count * 2 * 3);
+                supportedTypes = Arrays.copyOf(supportedTypes, count * 2);
+            }
+            ids[count]               = id;
+            fractions[count * 3]     = left;
+            fractions[count * 3 + 1] = top;
+            fractions[count * 3 + 2] = size;
+            supportedTypes[count]    = types.clone();
+            count++;
+            return this;
+        }
+
+        ComplicationSlots build() {
+            return new ComplicationSlots(this);
+        }
+    }
+}
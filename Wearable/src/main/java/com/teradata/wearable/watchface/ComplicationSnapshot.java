@@ -0,0 +1,395 @@
+package com.teradata.wearable.watchface;
+
+import android.app.PendingIntent;
+import android.graphics.drawable.Icon;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.wearable.complications.ComplicationData;
+import android.support.wearable.complications.ComplicationText;
+import android.util.AtomicFile;
+import android.util.Log;
+import android.util.SparseArray;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * What the face last showed, kept on disk so a restarted process can draw a complete first frame
+ * before the complication providers push their data again: the last data per slot and the
+ * surface the layout was computed for. Settings are not included; the settings store already
+ * survives restarts.
+ *
+ * <p>The encoding is a small header (magic, codec version, app version code, platform build
+ * fingerprint) followed by one record per slot holding the type, a mask of the fields present and
+ * those fields. Texts and icons are written through their Parcel form, which is not meant for
+ * storage and may change with either the app or the platform, so a snapshot from any other app
+ * version or system build is discarded. Tap actions cannot be persisted and are left out; the provider's
+ * next update brings them back. Icons above {@link #MAX_ICON_BYTES} are dropped, and slots that
+ * would take the snapshot over {@link #MAX_BYTES} are left out.
+ */
+final class ComplicationSnapshot {
+
+    private static final String TAG = "ComplicationSnapshot";
+
+    static final int MAX_BYTES      = 32 * 1024;
+    static final int MAX_ICON_BYTES = 8 * 1024;
+
+    private static final int MAGIC   = 0x54445343; // "TDSC"
+    private static final int VERSION = 2;
+
+    private static final int FIELD_VALUES       = 1;
+    private static final int FIELD_SHORT_TEXT   = 1 << 1;
+    private static final int FIELD_SHORT_TITLE  = 1 << 2;
+    private static final int FIELD_LONG_TEXT    = 1 << 3;
+    private static final int FIELD_LONG_TITLE   = 1 << 4;
+    private static final int FIELD_ICON         = 1 << 5;
+    private static final int FIELD_BURN_IN_ICON = 1 << 6;
+    private static final int FIELD_SMALL_IMAGE  = 1 << 7;
+    private static final int FIELD_LARGE_IMAGE  = 1 << 8;
+    private static final int FIELD_IMAGE_STYLE  = 1 << 9;
+
+    int     surfaceWidth;
+    int     surfaceHeight;
+    boolean isRound;
+
+    final SparseArray<ComplicationData> data = new SparseArray<>();
+
+    /**
+     * Encodes the snapshot, within {@link #MAX_BYTES}.
+     *
+     * @param fingerprint the platform build, normally {@link android.os.Build#FINGERPRINT}.
+     */
+    byte[] encode(int versionCode, String fingerprint) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(versionCode);
+        out.writeUTF(fingerprint);
+        out.writeInt(surfaceWidth);
+        out.writeInt(surfaceHeight);
+        out.writeBoolean(isRound);
+
+        byte[][] slots = new byte[data.size()][];
+        int      count = 0;
+        int      size  = bytes.size() + 4;
+        for (int i = 0; i < data.size(); i++) {
+            byte[] slot = encodeSlot(data.keyAt(i), data.valueAt(i));
+            if (slot != null && size + slot.length <= MAX_BYTES) {
+                slots[count++] = slot;
+                size += slot.length;
+            }
+        }
+
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.write(slots[i]);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /** Returns the decoded snapshot, or null if it is damaged or from another build. */
+    static ComplicationSnapshot decode(byte[] bytes, int versionCode, String fingerprint) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != versionCode
+                    || !in.readUTF().equals(fingerprint)) {
+                return null;
+            }
+
+            ComplicationSnapshot snapshot = new ComplicationSnapshot();
+            snapshot.surfaceWidth  = in.readInt();
+            snapshot.surfaceHeight = in.readInt();
+            snapshot.isRound       = in.readBoolean();
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int    id    = in.readInt();
+                byte[] slot  = new byte[readLength(in)];
+                in.readFully(slot);
+
+                ComplicationData data = decodeSlot(slot);
+                if (data != null) {
+                    snapshot.data.put(id, data);
+                }
+            }
+            return snapshot;
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding damaged snapshot: " + e);
+            return null;
+        }
+    }
+
+    static ComplicationSnapshot read(File file, int versionCode, String fingerprint) {
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            byte[] bytes = new AtomicFile(file).readFully();
+            return bytes.length <= MAX_BYTES ? decode(bytes, versionCode, fingerprint) : null;
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to read " + file + ": " + e);
+            return null;
+        }
+    }
+
+    static void write(File file, byte[] bytes) {
+        AtomicFile atomicFile = new AtomicFile(file);
+        FileOutputStream out = null;
+        try {
+            out = atomicFile.startWrite();
+            out.write(bytes);
+            atomicFile.finishWrite(out);
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to write " + file + ": " + e);
+            atomicFile.failWrite(out);
+        }
+    }
+
+    // Slot record: id, length, then type, field mask and the fields in mask order.
+    private static byte[] encodeSlot(int id, ComplicationData data) throws IOException {
+        int type     = data.getType();
+        int fields   = fieldsFor(type);
+        int required = requiredFor(type);
+
+        byte[] shortText   = (fields & FIELD_SHORT_TEXT)   != 0 ? marshall(data.getShortText())   : null;
+        byte[] shortTitle  = (fields & FIELD_SHORT_TITLE)  != 0 ? marshall(data.getShortTitle())  : null;
+        byte[] longText    = (fields & FIELD_LONG_TEXT)    != 0 ? marshall(data.getLongText())    : null;
+        byte[] longTitle   = (fields & FIELD_LONG_TITLE)   != 0 ? marshall(data.getLongTitle())   : null;
+        byte[] icon        = (fields & FIELD_ICON)         != 0 ? marshallIcon(data.getIcon())    : null;
+        byte[] burnInIcon  = (fields & FIELD_BURN_IN_ICON) != 0 ? marshallIcon(data.getBurnInProtectionIcon()) : null;
+        byte[] smallImage  = (fields & FIELD_SMALL_IMAGE)  != 0 ? marshallIcon(data.getSmallImage()) : null;
+        byte[] largeImage  = (fields & FIELD_LARGE_IMAGE)  != 0 ? marshallIcon(data.getLargeImage()) : null;
+
+        int present = fields & (FIELD_VALUES | FIELD_IMAGE_STYLE);
+        present |= shortText  != null ? FIELD_SHORT_TEXT   : 0;
+        present |= shortTitle != null ? FIELD_SHORT_TITLE  : 0;
+        present |= longText   != null ? FIELD_LONG_TEXT    : 0;
+        present |= longTitle  != null ? FIELD_LONG_TITLE   : 0;
+        present |= icon       != null ? FIELD_ICON         : 0;
+        present |= burnInIcon != null ? FIELD_BURN_IN_ICON : 0;
+        present |= smallImage != null ? FIELD_SMALL_IMAGE  : 0;
+        present |= largeImage != null ? FIELD_LARGE_IMAGE  : 0;
+        if ((present & required) != required) {
+            // Lost something the type cannot do without, e.g. an oversized image.
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(type);
+        out.writeInt(present);
+        if ((present & FIELD_VALUES) != 0) {
+            out.writeFloat(data.getValue());
+            out.writeFloat(data.getMinValue());
+            out.writeFloat(data.getMaxValue());
+        }
+        writeBlob(out, shortText);
+        writeBlob(out, shortTitle);
+        writeBlob(out, longText);
+        writeBlob(out, longTitle);
+        writeBlob(out, icon);
+        writeBlob(out, burnInIcon);
+        writeBlob(out, smallImage);
+        writeBlob(out, largeImage);
+        if ((present & FIELD_IMAGE_STYLE) != 0) {
+            out.writeInt(data.getImageStyle());
+        }
+        out.flush();
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream(bytes.size() + 8);
+        DataOutputStream header = new DataOutputStream(record);
+        header.writeInt(id);
+        header.writeInt(bytes.size());
+        bytes.writeTo(header);
+        header.flush();
+        return record.toByteArray();
+    }
+
+    private static ComplicationData decodeSlot(byte[] slot) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(slot));
+        int type    = in.readInt();
+        int present = in.readInt();
+
+        try {
+            ComplicationData.Builder builder = new ComplicationData.Builder(type);
+            if ((present & FIELD_VALUES) != 0) {
+                builder.setValue(in.readFloat());
+                builder.setMinValue(in.readFloat());
+                builder.setMaxValue(in.readFloat());
+            }
+            if ((present & FIELD_SHORT_TEXT)   != 0) builder.setShortText(unmarshall(readBlob(in), ComplicationText.CREATOR));
+            if ((present & FIELD_SHORT_TITLE)  != 0) builder.setShortTitle(unmarshall(readBlob(in), ComplicationText.CREATOR));
+            if ((present & FIELD_LONG_TEXT)    != 0) builder.setLongText(unmarshall(readBlob(in), ComplicationText.CREATOR));
+            if ((present & FIELD_LONG_TITLE)   != 0) builder.setLongTitle(unmarshall(readBlob(in), ComplicationText.CREATOR));
+            if ((present & FIELD_ICON)         != 0) builder.setIcon(unmarshall(readBlob(in), Icon.CREATOR));
+            if ((present & FIELD_BURN_IN_ICON) != 0) builder.setBurnInProtectionIcon(unmarshall(readBlob(in), Icon.CREATOR));
+            if ((present & FIELD_SMALL_IMAGE)  != 0) builder.setSmallImage(unmarshall(readBlob(in), Icon.CREATOR));
+            if ((present & FIELD_LARGE_IMAGE)  != 0) builder.setLargeImage(unmarshall(readBlob(in), Icon.CREATOR));
+            if ((present & FIELD_IMAGE_STYLE)  != 0) builder.setImageStyle(in.readInt());
+            return builder.build();
+        } catch (RuntimeException e) {
+            // Parcel formats or the rules of the builder changed; the provider will refresh it.
+            Log.w(TAG, "Dropping snapshot of type " + type + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Whether two updates would draw and behave the same: same type, active period, values,
+     * texts, images and tap action. Texts and images are compared through their Parcel form, as
+     * they are stored, so this is not for the main thread.
+     */
+    static boolean sameContent(ComplicationData a, ComplicationData b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null || a.getType() != b.getType()) {
+            return false;
+        }
+
+        // The active period has no getters. Data without one is active at both ends of time;
+        // any other period counts as changed, so a moved window is never dropped.
+        if (!alwaysActive(a) || !alwaysActive(b)) {
+            return false;
+        }
+
+        int fields = fieldsFor(a.getType());
+        if (fields == 0) {
+            // Empty, not configured and no data carry nothing else.
+            return true;
+        }
+        if ((fields & FIELD_VALUES) != 0
+                && (a.getValue() != b.getValue() || a.getMinValue() != b.getMinValue() || a.getMaxValue() != b.getMaxValue())) {
+            return false;
+        }
+        if ((fields & FIELD_IMAGE_STYLE) != 0 && a.getImageStyle() != b.getImageStyle()) {
+            return false;
+        }
+
+        // PendingIntent equality is by target, which is what a tap would send.
+        PendingIntent tapAction = a.getTapAction();
+        if (tapAction == null ? b.getTapAction() != null : !tapAction.equals(b.getTapAction())) {
+            return false;
+        }
+
+        return ((fields & FIELD_SHORT_TEXT)   == 0 || sameParcel(a.getShortText(),  b.getShortText()))
+            && ((fields & FIELD_SHORT_TITLE)  == 0 || sameParcel(a.getShortTitle(), b.getShortTitle()))
+            && ((fields & FIELD_LONG_TEXT)    == 0 || sameParcel(a.getLongText(),   b.getLongText()))
+            && ((fields & FIELD_LONG_TITLE)   == 0 || sameParcel(a.getLongTitle(),  b.getLongTitle()))
+            && ((fields & FIELD_ICON)         == 0 || sameParcel(a.getIcon(),       b.getIcon()))
+            && ((fields & FIELD_BURN_IN_ICON) == 0 || sameParcel(a.getBurnInProtectionIcon(), b.getBurnInProtectionIcon()))
+            && ((fields & FIELD_SMALL_IMAGE)  == 0 || sameParcel(a.getSmallImage(), b.getSmallImage()))
+            && ((fields & FIELD_LARGE_IMAGE)  == 0 || sameParcel(a.getLargeImage(), b.getLargeImage()));
+    }
+
+    private static boolean alwaysActive(ComplicationData data) {
+        return data.isActive(0) && data.isActive(Long.MAX_VALUE);
+    }
+
+    private static boolean sameParcel(Parcelable a, Parcelable b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+        byte[] bytesA = marshall(a);
+        // Anything that cannot be flattened is treated as changed.
+        return bytesA != null && Arrays.equals(bytesA, marshall(b));
+    }
+
+    // The fields each type can hold; getters for anything else log a warning.
+    private static int fieldsFor(int type) {
+        switch (type) {
+            case ComplicationData.TYPE_SHORT_TEXT:
+            case ComplicationData.TYPE_NO_PERMISSION:
+                return FIELD_SHORT_TEXT | FIELD_SHORT_TITLE | FIELD_ICON | FIELD_BURN_IN_ICON;
+            case ComplicationData.TYPE_LONG_TEXT:
+                return FIELD_LONG_TEXT | FIELD_LONG_TITLE | FIELD_ICON | FIELD_BURN_IN_ICON
+                        | FIELD_SMALL_IMAGE | FIELD_IMAGE_STYLE;
+            case ComplicationData.TYPE_RANGED_VALUE:
+                return FIELD_VALUES | FIELD_SHORT_TEXT | FIELD_SHORT_TITLE | FIELD_ICON | FIELD_BURN_IN_ICON;
+            case ComplicationData.TYPE_ICON:
+                return FIELD_ICON | FIELD_BURN_IN_ICON;
+            case ComplicationData.TYPE_SMALL_IMAGE:
+                return FIELD_SMALL_IMAGE | FIELD_IMAGE_STYLE;
+            case ComplicationData.TYPE_LARGE_IMAGE:
+                return FIELD_LARGE_IMAGE;
+            default:
+                return 0;
+        }
+    }
+
+    private static int requiredFor(int type) {
+        switch (type) {
+            case ComplicationData.TYPE_SHORT_TEXT:   return FIELD_SHORT_TEXT;
+            case ComplicationData.TYPE_LONG_TEXT:    return FIELD_LONG_TEXT;
+            case ComplicationData.TYPE_RANGED_VALUE: return FIELD_VALUES;
+            case ComplicationData.TYPE_ICON:         return FIELD_ICON;
+            case ComplicationData.TYPE_SMALL_IMAGE:  return FIELD_SMALL_IMAGE | FIELD_IMAGE_STYLE;
+            case ComplicationData.TYPE_LARGE_IMAGE:  return FIELD_LARGE_IMAGE;
+            default:                                 return 0;
+        }
+    }
+
+    private static byte[] marshallIcon(Icon icon) {
+        byte[] bytes = marshall(icon);
+        return bytes != null && bytes.length <= MAX_ICON_BYTES ? bytes : null;
+    }
+
+    // Null for null, or for objects that hold binders or file descriptors and cannot be flattened.
+    private static byte[] marshall(Parcelable parcelable) {
+        if (parcelable == null) {
+            return null;
+        }
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcelable.writeToParcel(parcel, 0);
+            return parcel.marshall();
+        } catch (RuntimeException e) {
+            return null;
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static <T> T unmarshall(byte[] bytes, Parcelable.Creator<T> creator) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.unmarshall(bytes, 0, bytes.length);
+            parcel.setDataPosition(0);
+            return creator.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static void writeBlob(DataOutputStream out, byte[] blob) throws IOException {
+        if (blob != null) {
+            out.writeInt(blob.length);
+            out.write(blob);
+        }
+    }
+
+    private static byte[] readBlob(DataInputStream in) throws IOException {
+        byte[] blob = new byte[readLength(in)];
+        in.readFully(blob);
+        return blob;
+    }
+
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_BYTES) {
+            throw new IOException("Bad length " + length);
+        }
+        return length;
+    }
+}
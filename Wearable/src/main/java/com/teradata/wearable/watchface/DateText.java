@@ -0,0 +1,79 @@
+package com.teradata.wearable.watchface;
+
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Reusable buffer holding the date text ("E d ") shown below the logo. The text is only rebuilt
+ * when the day changes and is written into a fixed character array, so no strings are created
+ * while the watch face is drawing.
+ */
+final class DateText {
+
+    private final String[] weekdays;
+    private final char     zeroDigit;
+    private final char[]   chars = new char[32];
+    private int            length;
+    private int            dayKey = -1;
+    private int            dayOfWeek;
+    private int            dayOfMonth;
+
+    DateText(Locale locale) {
+        weekdays  = new DateFormatSymbols(locale).getShortWeekdays();
+        zeroDigit = new DecimalFormatSymbols(locale).getZeroDigit();
+    }
+
+    /**
+     * Rebuilds the text if the clock has moved on to a different day.
+     *
+     * @return true if the text changed.
+     */
+    boolean update(WallClock clock) {
+        int key = clock.dayKey();
+        if (key == dayKey) {
+            return false;
+        }
+        dayKey = key;
+
+        dayOfWeek  = clock.dayOfWeek;
+        dayOfMonth = clock.dayOfMonth;
+        String weekday = weekdays[dayOfWeek];
+
+        length = Math.min(weekday.length(), chars.length - 4);
+        weekday.getChars(0, length, chars, 0);
+        chars[length++] = ' ';
+        if (dayOfMonth >= 10) {
+            chars[length++] = (char) (zeroDigit + dayOfMonth / 10);
+        }
+        chars[length++] = (char) (zeroDigit + dayOfMonth % 10);
+        chars[length++] = ' ';
+        return true;
+    }
+
+    /** The short name of a Calendar.DAY_OF_WEEK in this locale. */
+    String weekday(int dayOfWeek) {
+        return weekdays[dayOfWeek];
+    }
+
+    char zeroDigit() {
+        return zeroDigit;
+    }
+
+    /** Day of week and month of the current text; 0 before the first update. */
+    int dayOfWeek() {
+        return dayOfWeek;
+    }
+
+    int dayOfMonth() {
+        return dayOfMonth;
+    }
+
+    char[] chars() {
+        return chars;
+    }
+
+    int length() {
+        return length;
+    }
+}
@@ -0,0 +1,172 @@
+package com.teradata.wearable.watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+/**
+ * Pre-rendered digits 0 - 9 for the hours and minutes. Each variant is an ALPHA_8 strip with one
+ * cell per digit, rasterized once from the digit paint; drawing a time is then one bitmap blit
+ * per digit, tinted by the colour and alpha of the paint passed in, instead of a font render.
+ * Besides the filled digits there are outlined and hairline ones for ambient frames that would
+ * otherwise light too much of the screen.
+ */
+final class DigitAtlas {
+
+    static final int VARIANT_INTERACTIVE = 0;
+    static final int VARIANT_AMBIENT     = 1;
+    static final int VARIANT_LOW_BIT     = 2;
+    static final int VARIANT_OUTLINE     = 3;
+    static final int VARIANT_HAIRLINE    = 4;
+    static final int VARIANT_COUNT       = 5;
+
+    private static final int DIGITS = 10;
+
+    private final Bitmap[] masks    = new Bitmap[VARIANT_COUNT];
+    private final float[]  advances = new float[DIGITS];
+    private final float[]  litAreas = new float[VARIANT_COUNT * DIGITS];
+    private final Rect     src      = new Rect();
+    private final Rect     dst      = new Rect();
+
+    private Typeface typeface;
+    private float    textSize;
+    private char     zeroDigit;
+    private int      cellWidth;
+    private int      cellHeight;
+    private int      top;
+    private int      padding;
+
+    /** Whether the atlas was built for the given typeface, size and digits. */
+    boolean isFor(Typeface typeface, float textSize, char zeroDigit) {
+        return masks[0] != null && this.typeface == typeface && this.textSize == textSize && this.zeroDigit == zeroDigit;
+    }
+
+    /**
+     * Rasterizes every variant using the typeface and text size of {@code template}.
+     */
+    void build(Paint template, char zeroDigit) {
+        release();
+
+        Paint paint = new Paint();
+        paint.setTypeface(template.getTypeface());
+        paint.setTextSize(template.getTextSize());
+        paint.setColor(Color.WHITE);
+
+        this.typeface  = template.getTypeface();
+        this.textSize  = template.getTextSize();
+        this.zeroDigit = zeroDigit;
+
+        char[] digit = new char[1];
+        float  widest = 0;
+        for (int i = 0; i < DIGITS; i++) {
+            digit[0] = (char) (zeroDigit + i);
+            advances[i] = paint.measureText(digit, 0, 1);
+            widest = Math.max(widest, advances[i]);
+        }
+
+        // Leave room for glyphs that overhang their advance.
+        Paint.FontMetricsInt metrics = paint.getFontMetricsInt();
+        padding    = (int) Math.ceil(textSize / 8);
+        cellWidth  = (int) Math.ceil(widest) + padding * 2;
+        cellHeight = metrics.bottom - metrics.top;
+        top        = metrics.top;
+
+        for (int variant = 0; variant < VARIANT_COUNT; variant++) {
+            paint.setAntiAlias(variant == VARIANT_INTERACTIVE);
+
+            // The outline variants light fewer ambient pixels; a stroke width of 0 is one pixel.
+            paint.setStyle(variant >= VARIANT_OUTLINE ? Paint.Style.STROKE : Paint.Style.FILL);
+            paint.setStrokeWidth(variant == VARIANT_OUTLINE ? Math.max(1, Math.round(textSize / 24)) : 0);
+
+            Bitmap mask = Bitmap.createBitmap(cellWidth * DIGITS, cellHeight, Bitmap.Config.ALPHA_8);
+            Canvas canvas = new Canvas(mask);
+            for (int i = 0; i < DIGITS; i++) {
+                digit[0] = (char) (zeroDigit + i);
+                canvas.drawText(digit, 0, 1, i * cellWidth + padding, -top, paint);
+            }
+            if (variant == VARIANT_LOW_BIT) {
+                threshold(mask);
+            }
+            masks[variant] = mask;
+
+            for (int i = 0; i < DIGITS; i++) {
+                litAreas[variant * DIGITS + i] = LitPixelMeter.coverage(mask, i * cellWidth, 0, (i + 1) * cellWidth, cellHeight);
+            }
+        }
+    }
+
+    /**
+     * Draws the digits with their origin at {@code x} and baseline at {@code y}, like
+     * {@link Canvas#drawText(char[], int, int, float, float, Paint)}.
+     *
+     * @return false if the text holds a character the atlas does not cover; nothing is drawn.
+     */
+    boolean drawText(Canvas canvas, char[] text, float x, float y, int variant, Paint paint) {
+        for (char c : text) {
+            if (c < zeroDigit || c >= zeroDigit + DIGITS) {
+                return false;
+            }
+        }
+
+        Bitmap mask = masks[variant];
+        int    cellTop = Math.round(y) + top;
+        float  origin  = x;
+        for (char c : text) {
+            int index = c - zeroDigit;
+            int left  = Math.round(origin) - padding;
+            src.set(index * cellWidth, 0, (index + 1) * cellWidth, cellHeight);
+            dst.set(left, cellTop, left + cellWidth, cellTop + cellHeight);
+            canvas.drawBitmap(mask, src, dst, paint);
+            origin += advances[index];
+        }
+        return true;
+    }
+
+    /**
+     * Pixels the text lights when drawn from a variant at full intensity, see
+     * {@link LitPixelMeter}. Characters the atlas does not cover count as nothing.
+     */
+    float litArea(char[] text, int variant) {
+        float area = 0;
+        for (char c : text) {
+            if (c >= zeroDigit && c < zeroDigit + DIGITS) {
+                area += litAreas[variant * DIGITS + c - zeroDigit];
+            }
+        }
+        return area;
+    }
+
+    /** Bytes held by all variants. */
+    int byteCount() {
+        int bytes = 0;
+        for (Bitmap mask : masks) {
+            bytes += mask != null ? mask.getAllocationByteCount() : 0;
+        }
+        return bytes;
+    }
+
+    void release() {
+        for (int i = 0; i < VARIANT_COUNT; i++) {
+            if (masks[i] != null) {
+                masks[i].recycle();
+                masks[i] = null;
+            }
+        }
+    }
+
+    // Forces every pixel fully on or off for displays with one bit per colour in ambient mode.
+    private static void threshold(Bitmap mask) {
+        int   width = mask.getWidth();
+        int[] row   = new int[width];
+        for (int y = 0; y < mask.getHeight(); y++) {
+            mask.getPixels(row, 0, width, 0, y, width, 1);
+            for (int x = 0; x < width; x++) {
+                row[x] = Color.alpha(row[x]) >= 128 ? Color.BLACK : Color.TRANSPARENT;
+            }
+            mask.setPixels(row, 0, width, 0, y, width, 1);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.teradata.wearable.watchface;
+
+/**
+ * Where one frame puts the time: the digit text to show and the position of each run,
+ * including this minute's ambient drift. Has no Android dependencies, so the engine and the
+ * render benchmark plan their frames with the same code.
+ */
+final class FaceFrame {
+
+    /** Ink widths of the time digits, as the digit paint measures them. */
+    interface DigitWidths {
+        int hoursWidth(int hourOfDay, boolean militaryTime);
+
+        int twoDigitsWidth(int value);
+    }
+
+    private final TimeText timeText;
+
+    private WatchFaceLayout  layout;
+    private AmbientDriftPath driftPath;
+    private DigitWidths      widths;
+
+    // Text for the frame; the arrays are shared tables from TimeText. Seconds are null when hidden.
+    char[] hours;
+    char[] minutes;
+    char[] seconds;
+
+    // Origins of each run, drift included.
+    int hoursX, hoursY;
+    int minutesX, minutesY;
+    int secondsX, secondsY;
+
+    // Ambient drift of the whole face, 0 when not drifting.
+    int offsetX;
+    int offsetY;
+
+    FaceFrame(TimeText timeText) {
+        this.timeText = timeText;
+    }
+
+    /** Sets the geometry frames are planned against; called whenever the layout changes. */
+    void setLayout(WatchFaceLayout layout, AmbientDriftPath driftPath) {
+        this.layout    = layout;
+        this.driftPath = driftPath;
+    }
+
+    /** Sets the widths of the digit paint as currently configured. */
+    void setWidths(DigitWidths widths) {
+        this.widths = widths;
+    }
+
+    /** Plans the frame for the time the clock was last set to, {@code now}. */
+    void update(WallClock clock, long now, boolean ambientMode, boolean ambientDrift,
+                boolean militaryTime, boolean showSeconds) {
+        boolean drifting = ambientMode && ambientDrift;
+        offsetX = driftX(now, drifting);
+        offsetY = driftY(now, drifting);
+
+        hours   = timeText.hours(clock.hour, militaryTime);
+        minutes = timeText.twoDigits(clock.minute);
+
+        int minutesWidth = widths.twoDigitsWidth(clock.minute);
+        hoursX   = layout.centeredLeft(widths.hoursWidth(clock.hour, militaryTime)) + offsetX;
+        hoursY   = layout.hoursBaseline + offsetY;
+        minutesX = layout.centeredLeft(minutesWidth) + offsetX;
+        minutesY = layout.minutesBaseline + offsetY;
+
+        if (showSeconds && !ambientMode) {
+            seconds  = timeText.twoDigits(clock.second);
+            secondsX = minutesX + minutesWidth + WatchFaceLayout.LINE_OFFSET;
+            secondsY = minutesY - WatchFaceLayout.LINE_OFFSET;
+        } else {
+            seconds = null;
+        }
+    }
+
+    /** Ambient drift a frame drawn at the given time would have; 0 when not drifting. */
+    int driftX(long timeMillis, boolean drifting) {
+        return drifting && driftPath != null ? driftPath.offsetX(driftPath.stepAt(timeMillis)) : 0;
+    }
+
+    int driftY(long timeMillis, boolean drifting) {
+        return drifting && driftPath != null ? driftPath.offsetY(driftPath.stepAt(timeMillis)) : 0;
+    }
+}
@@ -0,0 +1,101 @@
+package com.teradata.wearable.watchface;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * Times the sections of a watch face frame. Each section keeps the most recent durations in a
+ * fixed ring buffer, separately for ambient and interactive frames, from which percentiles are
+ * worked out only when dumped. Recording is a couple of array writes and never allocates.
+ *
+ * Not thread safe: dump and reset on the thread that records, or the numbers may be torn.
+ */
+final class FrameProfiler {
+
+    static final int SECTION_BACKGROUND    = 0;
+    static final int SECTION_FACE          = 1;
+    static final int SECTION_NOTIFICATIONS = 2;
+    static final int SECTION_COMPLICATIONS = 3;
+    static final int SECTION_LIT_BUDGET    = 4;
+    static final int SECTION_COUNT         = 5;
+
+    private static final String[] SECTION_NAMES = {
+            "drawBackground", "drawFace", "drawUnreadNotificationIcon", "drawComplications", "updateAmbientLevel"
+    };
+
+    private static final int INTERACTIVE = 0;
+    private static final int AMBIENT     = 1;
+
+    // Must be a power of two.
+    private static final int SAMPLES = 256;
+
+    private final long[][][] samples = new long[2][SECTION_COUNT][SAMPLES];
+    private final long[][]   total   = new long[2][SECTION_COUNT];
+    private final long[][]   max     = new long[2][SECTION_COUNT];
+    private final long[]     sorted  = new long[SAMPLES];
+
+    /**
+     * Records the time since {@code start} against a section.
+     *
+     * @return the current time, to be used as the start of the next section.
+     */
+    long mark(boolean ambient, int section, long start) {
+        long now      = System.nanoTime();
+        long duration = now - start;
+        int  mode     = ambient ? AMBIENT : INTERACTIVE;
+
+        samples[mode][section][(int) (total[mode][section] & (SAMPLES - 1))] = duration;
+        total[mode][section]++;
+        if (duration > max[mode][section]) {
+            max[mode][section] = duration;
+        }
+        return now;
+    }
+
+    void reset() {
+        for (int mode = 0; mode < 2; mode++) {
+            Arrays.fill(total[mode], 0);
+            Arrays.fill(max[mode], 0);
+        }
+    }
+
+    /** Writes p50/p95/p99 and max per section and mode, in microseconds. */
+    void dump(String prefix, PrintWriter writer) {
+        for (int mode = 0; mode < 2; mode++) {
+            writer.print(prefix);
+            writer.println(mode == AMBIENT ? "Ambient frames (us):" : "Interactive frames (us):");
+
+            for (int section = 0; section < SECTION_COUNT; section++) {
+                long count = total[mode][section];
+                int  size  = (int) Math.min(count, SAMPLES);
+
+                writer.print(prefix);
+                writer.print("  ");
+                writer.print(SECTION_NAMES[section]);
+                writer.print(": n=");
+                writer.print(count);
+                if (size > 0) {
+                    System.arraycopy(samples[mode][section], 0, sorted, 0, size);
+                    Arrays.sort(sorted, 0, size);
+                    writer.print(" p50=");
+                    writer.print(micros(sorted[percentileIndex(size, 50)]));
+                    writer.print(" p95=");
+                    writer.print(micros(sorted[percentileIndex(size, 95)]));
+                    writer.print(" p99=");
+                    writer.print(micros(sorted[percentileIndex(size, 99)]));
+                    writer.print(" max=");
+                    writer.print(micros(max[mode][section]));
+                }
+                writer.println();
+            }
+        }
+    }
+
+    private static int percentileIndex(int size, int percentile) {
+        return Math.min(size - 1, (size * percentile + 99) / 100 - 1);
+    }
+
+    private static double micros(long nanos) {
+        return Math.round(nanos / 100.0) / 10.0;
+    }
+}
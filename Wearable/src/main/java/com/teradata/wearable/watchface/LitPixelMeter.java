@@ -0,0 +1,62 @@
+package com.teradata.wearable.watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * Works out how much light an ambient frame emits, the main power cost of an OLED display in
+ * ambient mode, without drawing the frame again. Everything an ambient frame holds is measured
+ * once at full resolution as a lit area: the summed coverage of its pixels, so a pixel half
+ * covered counts half. A frame's lit area is then the sum of its parts, each weighted by the
+ * {@link #intensity} of the paint it is drawn with.
+ */
+final class LitPixelMeter {
+
+    private LitPixelMeter() {
+    }
+
+    /** Brightness of the paint's colour including its alpha, from 0 for black to 1 for white. */
+    static float intensity(Paint paint) {
+        int colour = paint.getColor();
+        int luma   = (Color.red(colour) * 77 + Color.green(colour) * 150 + Color.blue(colour) * 29) >> 8;
+        return luma * paint.getAlpha() / (255f * 255f);
+    }
+
+    /** Summed coverage of part of an ALPHA_8 mask, in pixels. */
+    static float coverage(Bitmap mask, int left, int top, int right, int bottom) {
+        int   width = right - left;
+        int[] row   = new int[width];
+        long  alpha = 0;
+        for (int y = top; y < bottom; y++) {
+            mask.getPixels(row, 0, width, left, y, width, 1);
+            for (int x = 0; x < width; x++) {
+                alpha += row[x] >>> 24;
+            }
+        }
+        return alpha / 255f;
+    }
+
+    /**
+     * Summed coverage of text as the paint draws it, in pixels. Rasterizes the text, so is only
+     * for text that rarely changes, such as the date.
+     */
+    static float textCoverage(char[] text, int start, int count, Paint paint) {
+        Rect bounds = new Rect();
+        paint.getTextBounds(text, start, count, bounds);
+        if (bounds.isEmpty()) {
+            return 0;
+        }
+
+        Paint white = new Paint(paint);
+        white.setColor(Color.WHITE);
+
+        Bitmap mask = Bitmap.createBitmap(bounds.width(), bounds.height(), Bitmap.Config.ALPHA_8);
+        new Canvas(mask).drawText(text, start, count, -bounds.left, -bounds.top, white);
+        float coverage = coverage(mask, 0, 0, mask.getWidth(), mask.getHeight());
+        mask.recycle();
+        return coverage;
+    }
+}
@@ -0,0 +1,169 @@
+package com.teradata.wearable.watchface;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.Log;
+
+import com.teradata.wearable.R;
+
+/**
+ * The logo scaled for one surface, in the cheapest config for each mode: RGB_565 already
+ * composited onto the background for interactive mode, ALPHA_8 coverage (alpha times luma of the
+ * ambient artwork) for ambient mode and the same thresholded to fully on or off for low-bit
+ * ambient. The alpha variants are drawn through a paint, which supplies the colour.
+ *
+ * The artwork is decoded straight to the surface's size while building and let go afterwards,
+ * so only these three small bitmaps stay resident.
+ */
+final class LogoBitmaps {
+
+    private static final String TAG = "LogoBitmaps";
+
+    // The logo artwork is drawn for a screen this many pixels wide.
+    static final int DESIGN_WIDTH = 320;
+
+    private Bitmap interactive;
+    private Bitmap ambient;
+    private Bitmap lowBit;
+
+    private int width;
+    private int background;
+
+    // Summed coverage of the ambient masks, see LitPixelMeter.
+    private float ambientLitArea;
+    private float lowBitLitArea;
+
+    /** Size of the artwork on a surface of the given width, from its size at its own density. */
+    static int scaled(int artworkSize, int surfaceWidth) {
+        return Math.max(1, Math.round(artworkSize * surfaceWidth / (float) DESIGN_WIDTH));
+    }
+
+    /** Whether the bitmaps were built for the given surface width and background colour. */
+    boolean isFor(int width, int background) {
+        return interactive != null && this.width == width && this.background == background;
+    }
+
+    /**
+     * Decodes the artwork for a surface {@code surfaceWidth} pixels wide and builds the variants.
+     *
+     * @param background the colour interactive mode draws the logo on.
+     * @return false if the artwork could not be decoded; nothing is built then.
+     */
+    boolean build(Resources resources, int surfaceWidth, int background) {
+        release();
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inScaled           = false;
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(resources, R.drawable.teradata_logo, bounds);
+        if (bounds.outWidth <= 0) {
+            Log.w(TAG, "Unable to decode the logo");
+            return false;
+        }
+        int width  = scaled(bounds.outWidth, surfaceWidth);
+        int height = scaled(bounds.outHeight, surfaceWidth);
+
+        Bitmap logo = decode(resources, R.drawable.teradata_logo, bounds.outWidth, width);
+        if (logo == null) {
+            Log.w(TAG, "Unable to decode the logo");
+            return false;
+        }
+        interactive = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        Canvas canvas = new Canvas(interactive);
+        canvas.drawColor(background);
+        canvas.drawBitmap(logo, null, new Rect(0, 0, width, height), new Paint(Paint.FILTER_BITMAP_FLAG));
+        logo.recycle();
+
+        Bitmap logoAmbient = decode(resources, R.drawable.teradata_logo_ambiant, bounds.outWidth, width);
+        if (logoAmbient == null) {
+            Log.w(TAG, "Unable to decode the ambient logo");
+            interactive.recycle();
+            interactive = null;
+            return false;
+        }
+        if (logoAmbient.getWidth() != width || logoAmbient.getHeight() != height) {
+            // Decoding rounds each side on its own; match the interactive variant exactly.
+            Bitmap exact = Bitmap.createScaledBitmap(logoAmbient, width, height, true);
+            logoAmbient.recycle();
+            logoAmbient = exact;
+        }
+        ambient = coverage(logoAmbient, false);
+        lowBit  = coverage(logoAmbient, true);
+        logoAmbient.recycle();
+
+        ambientLitArea  = LitPixelMeter.coverage(ambient, 0, 0, width, height);
+        lowBitLitArea   = LitPixelMeter.coverage(lowBit,  0, 0, width, height);
+        this.width      = surfaceWidth;
+        this.background = background;
+        return true;
+    }
+
+    // Decodes artwork artworkWidth pixels wide at its own density to targetWidth pixels wide.
+    private static Bitmap decode(Resources resources, int resourceId, int artworkWidth, int targetWidth) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inDensity       = artworkWidth;
+        options.inTargetDensity = targetWidth;
+        return BitmapFactory.decodeResource(resources, resourceId, options);
+    }
+
+    int width() {
+        return interactive.getWidth();
+    }
+
+    int height() {
+        return interactive.getHeight();
+    }
+
+    /** The variant to draw; ambient ones need a paint with the colour set. */
+    Bitmap forMode(boolean ambientMode, boolean lowBitAmbient) {
+        return !ambientMode ? interactive : lowBitAmbient ? lowBit : ambient;
+    }
+
+    /** Pixels the ambient variant lights drawn at full intensity. */
+    float litArea(boolean lowBitAmbient) {
+        return lowBitAmbient ? lowBitLitArea : ambientLitArea;
+    }
+
+    /** Bytes held by all variants. */
+    int byteCount() {
+        return interactive == null ? 0
+                : interactive.getAllocationByteCount() + ambient.getAllocationByteCount() + lowBit.getAllocationByteCount();
+    }
+
+    void release() {
+        if (interactive != null) {
+            interactive.recycle();
+            ambient.recycle();
+            lowBit.recycle();
+            interactive = ambient = lowBit = null;
+        }
+    }
+
+    // ALPHA_8 holding how bright each pixel of the artwork shows on black.
+    private static Bitmap coverage(Bitmap source, boolean threshold) {
+        int   width  = source.getWidth();
+        int   height = source.getHeight();
+        int[] row    = new int[width];
+
+        Bitmap mask = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+        for (int y = 0; y < height; y++) {
+            source.getPixels(row, 0, width, 0, y, width, 1);
+            for (int x = 0; x < width; x++) {
+                int pixel = row[x];
+                int luma  = (Color.red(pixel) * 77 + Color.green(pixel) * 150 + Color.blue(pixel) * 29) >> 8;
+                int value = Color.alpha(pixel) * luma / 255;
+                if (threshold) {
+                    value = value >= 128 ? 255 : 0;
+                }
+                row[x] = Color.argb(value, 0, 0, 0);
+            }
+            mask.setPixels(row, 0, width, 0, y, width, 1);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,62 @@
+package com.teradata.wearable.watchface;
+
+/**
+ * Everything that decides what a frame of the watch face looks like. The engine keeps the state
+ * of the last frame it drew and compares it with the state a new frame would have, so redraw
+ * requests that would produce the same pixels can be skipped.
+ */
+final class RenderState {
+
+    // The low 16 bits of the flags hold the settings, as stored by the settings store.
+    static final int MODE_AMBIENT = 1 << 16;
+    static final int MODE_MUTE    = 1 << 17;
+
+    // Text tables are shared, so text is compared by reference.
+    char[]  hours;
+    char[]  minutes;
+    char[]  seconds;
+    int     dayKey;
+    int     flags;
+    int     unreadCount;
+    float   battery;
+    int     offsetX;
+    int     offsetY;
+
+    // Complication data is compared by identity; a new update is a new object.
+    final Object[] complications;
+
+    // Set when something outside this model changed, such as the layout.
+    private boolean stale = true;
+
+    RenderState(int complicationCount) {
+        complications = new Object[complicationCount];
+    }
+
+    /** Marks the state as unknown, so the next comparison always reports a difference. */
+    void invalidate() {
+        stale = true;
+    }
+
+    boolean matches(RenderState other) {
+        if (stale || other.stale) {
+            return false;
+        }
+        if (hours != other.hours || minutes != other.minutes || seconds != other.seconds
+                || dayKey != other.dayKey || flags != other.flags
+                || unreadCount != other.unreadCount
+                || Float.floatToIntBits(battery) != Float.floatToIntBits(other.battery)
+                || offsetX != other.offsetX || offsetY != other.offsetY) {
+            return false;
+        }
+        for (int i = 0; i < complications.length; i++) {
+            if (complications[i] != other.complications[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void setValid() {
+        stale = false;
+    }
+}
@@ -6,22 +6,23 @@ import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.content.SharedPreferences;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Point;
 import android.graphics.Rect;
 import android.graphics.Typeface;
-import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
+import android.os.AsyncTask;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import android.os.Message;
+import android.os.Process;
+import android.os.SystemClock;
 import android.support.v4.content.ContextCompat;
-import android.support.v4.content.res.ResourcesCompat;
 import android.support.wearable.complications.ComplicationData;
 import android.support.wearable.complications.ComplicationHelperActivity;
 import android.support.wearable.complications.SystemProviders;
@@ -33,78 +34,120 @@ import android.util.SparseArray;
 import android.view.SurfaceHolder;
 import android.view.WindowInsets;
 
-import static java.lang.Math.pow;
-import static java.lang.Math.sqrt;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.lang.ref.WeakReference;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.teradata.wearable.config.ComplicationConfigRecyclerViewAdapter;
+import com.teradata.wearable.BuildConfig;
+import com.teradata.wearable.model.SettingsStore;
+import com.teradata.wearable.model.SharedExecutor;
+import com.teradata.wearable.model.TraceLog;
 import com.teradata.wearable.R;
 
 public class TeradataWatchService extends CanvasWatchFaceService {
 
     private static final String TAG = "TeradataWatchService";
-    private static final String SINGLE_DIGIT = "%d";
-    private static final String DOUBLE_DIGIT = "%02d";
     private static final Locale LOCAL = Locale.getDefault();
     /**
      * Update rate in milliseconds for interactive mode. Defaults to one second
      * because the watch face needs to update seconds in interactive mode.
      */
-    private static final int LINE_OFFSET  = 9;
-    private static final int STROKE_WIDTH = 1;
+    private static final int LINE_OFFSET  = WatchFaceLayout.LINE_OFFSET;
 
     private static final int UPPER_COMPLICATION_ID          = 0;
     private static final int LOWER_COMPLICATION_ID          = 1;
     private static final int BATTERY_STATUS_COMPLICATION_ID = 2;
 
+    private static final int[] DIAL_SUPPORTED_TYPES = {
+            ComplicationData.TYPE_RANGED_VALUE, ComplicationData.TYPE_ICON,
+            ComplicationData.TYPE_SHORT_TEXT,   ComplicationData.TYPE_SMALL_IMAGE
+    };
+
+    // Slots drawn on the face, in ComplicationLocation order.
+    private static final ComplicationSlots SLOTS = newComplicationSlots();
+
     private static final float SECOND_TICK_STROKE_WIDTH = 2f;
+    private static final int   NOTIFICATION_RADIUS      = 8;
 
-    private static final int[] COMPLICATION_IDS = {
-            UPPER_COMPLICATION_ID,
-            LOWER_COMPLICATION_ID,
-            BATTERY_STATUS_COMPLICATION_ID
-    };
+    private static final String SNAPSHOT_FILE_NAME = "complications.snapshot";
+    private static final long   SNAPSHOT_DELAY_MS  = TimeUnit.SECONDS.toMillis(10);
+
+    // The slots plus the battery level, which is drawn as a line rather than in a slot.
+    private static final int[] COMPLICATION_IDS = complicationIds();
 
     /**
      * Handler message id for updating the time periodically in interactive mode.
      */
     private static final int MSG_UPDATE_TIME = 0;
 
-    // Left and right dial supported types.
-    private static final int[][] COMPLICATION_SUPPORTED_TYPES = {
-        {
-            ComplicationData.TYPE_RANGED_VALUE, ComplicationData.TYPE_ICON,
-            ComplicationData.TYPE_SHORT_TEXT,   ComplicationData.TYPE_SMALL_IMAGE
-        },
-        {
-            ComplicationData.TYPE_RANGED_VALUE, ComplicationData.TYPE_ICON,
-            ComplicationData.TYPE_SHORT_TEXT,   ComplicationData.TYPE_SMALL_IMAGE
-        }
-    };
+    /**
+     * Handler message id for applying the complication updates collected in the last window.
+     */
+    private static final int MSG_APPLY_COMPLICATIONS = 1;
+
+    /**
+     * Handler message id for applying a batch of complication updates once it has been compared
+     * with what is shown.
+     */
+    private static final int MSG_COMPLICATIONS_COMPARED = 2;
+
+    // Providers tend to refresh together; updates this close together are applied as one.
+    private static final long COMPLICATION_BATCH_MS = 16;
+
+    // How long a dump waits for the main thread to hand over the frame timings.
+    private static final long PROFILER_DUMP_TIMEOUT_MS = 1000;
+
+    /*
+     * Ambient styles, each lighting less of the screen than the one before. With burn-in
+     * protection the first whose frame fits the lit budget is drawn.
+     */
+    private static final int AMBIENT_SOLID    = 0;
+    private static final int AMBIENT_OUTLINE  = 1;
+    private static final int AMBIENT_HAIRLINE = 2;
+
+    private static final String[] AMBIENT_LEVEL_NAMES = { "solid", "outline", "hairline" };
+
+    // Alpha of the ambient logo in the hairline style.
+    private static final int DIMMED_LOGO_ALPHA = 96;
+
+    /*
+     * Both dials sit left of the centre, either side of the line. Every engine lays out its own
+     * copy for its surface.
+     */
+    private static ComplicationSlots newComplicationSlots() {
+        return new ComplicationSlots.Builder()
+                .add(UPPER_COMPLICATION_ID, 0.13f, 0.3275f, 1 / 6.5f, DIAL_SUPPORTED_TYPES)
+                .add(LOWER_COMPLICATION_ID, 0.13f, 0.5225f, 1 / 6.5f, DIAL_SUPPORTED_TYPES)
+                .build();
+    }
+
+    private static int[] complicationIds() {
+        int[] ids = Arrays.copyOf(SLOTS.ids(), SLOTS.count() + 1);
+        ids[SLOTS.count()] = BATTERY_STATUS_COMPLICATION_ID;
+        return ids;
+    }
 
     public static int[] getComplicationIds() {
         return COMPLICATION_IDS;
     }
 
     public static int getComplicationId(ComplicationConfigRecyclerViewAdapter.ComplicationLocation complicationLocation) {
-        switch (complicationLocation) {
-            case UPPER:          return UPPER_COMPLICATION_ID;
-            case LOWER:          return LOWER_COMPLICATION_ID;
-            default:
-                return -1;
-        }
+        int slot = complicationLocation.ordinal();
+        return slot < SLOTS.count() ? SLOTS.id(slot) : -1;
     }
 
     public static int[] getSupportedComplicationTypes(ComplicationConfigRecyclerViewAdapter.ComplicationLocation complicationLocation) {
-        return COMPLICATION_SUPPORTED_TYPES[complicationLocation.ordinal()];
+        return SLOTS.supportedTypes(complicationLocation.ordinal()).clone();
     }
 
     @Override
@@ -127,24 +170,69 @@ public class TeradataWatchService extends CanvasWatchFaceService {
                     case MSG_UPDATE_TIME:
                         engine.handleUpdateTimeMessage();
                         break;
+                    case MSG_APPLY_COMPLICATIONS:
+                        engine.applyComplicationUpdates();
+                        break;
+                    case MSG_COMPLICATIONS_COMPARED:
+                        engine.applyComparedUpdates((ComplicationBatch) msg.obj);
+                        break;
                 }
             }
         }
     }
 
+    /*
+     * Updates collected during one batch window, with the data shown when the window closed.
+     * Comparing them marshals texts and icons, so it runs on the shared executor and the result
+     * is handed back to the engine's handler.
+     */
+    private static final class ComplicationBatch implements Runnable {
+        final int[]              ids;
+        final ComplicationData[] updates;
+        final boolean[]          unchanged;
+
+        private final ComplicationData[] shown;
+        private final Handler            handler;
+
+        ComplicationBatch(SparseArray<ComplicationData> received, SparseArray<ComplicationData> active, Handler handler) {
+            int size = received.size();
+            ids       = new int[size];
+            updates   = new ComplicationData[size];
+            shown     = new ComplicationData[size];
+            unchanged = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                ids[i]     = received.keyAt(i);
+                updates[i] = received.valueAt(i);
+                shown[i]   = active.get(ids[i]);
+            }
+            this.handler = handler;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < ids.length; i++) {
+                unchanged[i] = ComplicationSnapshot.sameContent(shown[i], updates[i]);
+            }
+            handler.obtainMessage(MSG_COMPLICATIONS_COMPARED, this).sendToTarget();
+        }
+    }
+
     private class Engine extends CanvasWatchFaceService.Engine {
 
         private final Handler updateTimeHandler = new EngineHandler(this);
-        private Calendar         calendar;
-        private Date             currentDate;
+        private WallClock        wallClock;
         private long             now;
-        private SimpleDateFormat dateFormatter;
+        private TimeText         timeText;
+        private DateText         dateText;
+        private FaceFrame        faceFrame;
 
         private final BroadcastReceiver mTimeZoneReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(Context context, Intent intent) {
-                calendar.setTimeZone(TimeZone.getDefault());
-                invalidate();
+                // A new zone, or the clock was set and the cached offset period may not hold.
+                wallClock.setTimeZone(TimeZone.getDefault());
+                requestRedraw();
+                scheduleNextWake();
             }
         };
 
@@ -158,8 +246,26 @@ public class TeradataWatchService extends CanvasWatchFaceService {
         private int     primaryColour;
         private int     secondaryColour;
         private int     ambientColour;
-        private Bitmap  teradataLogo;
-        private Bitmap  teradataLogoAmbient;
+
+        // The logo for this surface; the ambient variants take their colour from the paint.
+        private final LogoBitmaps logoBitmaps = new LogoBitmaps();
+        private final Paint       logoPaint   = new Paint();
+
+        // Ambient style and the lit ratio of the last ambient frame measured, -1 until then.
+        private float litBudget;
+        private int   ambientLevel = AMBIENT_SOLID;
+        private float litRatio     = -1;
+
+        // Summed coverage of the date as the current paint draws it, -1 until measured.
+        private float dateLitArea  = -1;
+
+        /*
+         * Offscreen copy of everything that only changes with the layout, the mode or the date:
+         * background, centre line, logo and date. Each frame blits it and draws the digits on top.
+         */
+        private Bitmap  staticLayer;
+        private Canvas  staticLayerCanvas;
+        private boolean staticLayerDirty = true;
 
         /**
          * Whether the display supports fewer bits for each color in ambient mode. When true, we
@@ -171,126 +277,179 @@ public class TeradataWatchService extends CanvasWatchFaceService {
         private boolean  muteMode;
 
         private Typeface teradataFont;
-        private int      midpointOfScreen;
-        private Rect     hourBounds        = new Rect();
-        private Rect     minutesBounds     = new Rect();
+
+        // Shared font and logos; null until loaded.
+        private WatchFaceResources watchFaceResources;
         private Rect     dateBounds        = new Rect();
-        private Rect     logoBound         = new Rect();
-        private Rect     ambientShift      = new Rect();
-        private double   ambientLength     = 0;
-        private double   ambientPie        = 0;
-        private Point    ambientSize       = new Point();
-        private Point    ambientOffset     = new Point();
-        private Point    notificationPoint = new Point();
-
-        private String hours,     minutes,     date,     seconds;
-        private String lastHours, lastMinutes, lastDate;
-
-        // Customization settings
-        private boolean militaryTime      = true;
-        private boolean showDate          = false;
-        private boolean ambientDrift      = true;
-        private boolean showSeconds       = false;
-        private boolean batteryStatus     = true;
-        private boolean showNotifications = true;
+        private Rect     digitBounds       = new Rect();
+
+        // Geometry for the current surface and insets, see updateLayout().
+        private WatchFaceLayout  layout;
+        private AmbientDriftPath driftPath;
+
+        // Hours and minutes are blitted from pre-rendered digits rather than drawn as text.
+        private final DigitAtlas digitAtlas = new DigitAtlas();
+
+        // Measured text bounds for the digit and date paints as currently configured.
+        private TextMetrics timeMetrics;
+        private TextMetrics dateMetrics;
+        private int             surfaceWidth;
+        private int             surfaceHeight;
+        private boolean         isRound;
+
+        // Customization settings, replaced as a whole whenever the store changes.
+        private WatchFaceSettings settings = WatchFaceSettings.DEFAULTS;
+        private SettingsStore     settingsStore;
+        private int               settingsSequence;
+
+        // Batches published by the config activity in this process, applied straight away.
+        private final SettingsStore.Listener settingsListener = new SettingsStore.Listener() {
+            @Override
+            public void onSettingsChanged(int sequence, int flags) {
+                settingsSequence = sequence;
+                applySettings(settings.with(flags));
+            }
+        };
 
         /* Maps active complication ids to the data for that complication. Note: Data will only be
          * present if the user has chosen a provider via the settings activity for the watch face.
          */
         private SparseArray<ComplicationData> activeComplicationDataCache;
 
-        /* Maps complication ids to corresponding ComplicationDrawable that renders the
-         * the complication data on the watch face.
-         */
-        private SparseArray<ComplicationDrawable> complicationDrawableSparseArray;
+        // Updates received since the last batch was applied; a later update replaces an earlier one.
+        private SparseArray<ComplicationData> receivedComplicationData;
+
+        // A batch is being compared off the main thread; later updates wait for it to be applied.
+        private boolean comparingComplications;
+        private boolean destroyed;
 
-        // List of watch complication ids
-        List<Integer> complicationIds = new ArrayList<>();
+        // This engine's slots, with the drawable rendering each one and its cached rendering.
+        private final ComplicationSlots complicationSlots = newComplicationSlots();
+        private ComplicationDrawable[]  complicationDrawables;
+        private ComplicationCache[]     complicationCaches;
 
         // User's preference for if they want visual shown to indicate unread notifications.
         private int numberOfUnreadNotifications = 0;
 
-        // Used to pull user's preferences
-        SharedPreferences sharedPreferences;
+        /*
+         * What the last frame showed and what the next one would show. Redraw requests that
+         * would not change the output are dropped.
+         */
+        private final RenderState drawnState  = new RenderState(COMPLICATION_IDS.length);
+        private final RenderState pendingState = new RenderState(COMPLICATION_IDS.length);
+
+        // Counters for the current day, logged and reset when the date rolls over.
+        private int framesRequested;
+        private int framesDrawn;
+        private int wakeUps;
+        private int updatesReceived;
+        private int updatesDeduplicated;
+        private int updateRedraws;
+
+        // Last complication data and surface, for the next process to start from.
+        private File    snapshotFile;
+        private boolean snapshotPending;
+
+        // Start-up timings, elapsed realtime; firstFrameAt is 0 until a full frame is drawn.
+        private long createdAt;
+        private long firstFrameAt;
+        private int  placeholderFrames;
+
+        // Section timings for dumpsys; only present in builds with FRAME_PROFILING.
+        private final FrameProfiler profiler = BuildConfig.FRAME_PROFILING ? new FrameProfiler() : null;
 
         @Override
         public void onCreate(SurfaceHolder holder) {
             super.onCreate(holder);
+            createdAt = SystemClock.elapsedRealtime();
 
             Context context = getApplicationContext();
-            sharedPreferences = context.getSharedPreferences(
-                                    getString(R.string.analog_complication_preference_file_key),
-                                    Context.MODE_PRIVATE);
+            settingsStore = SettingsStore.get(context);
 
             setWatchFaceStyle(new WatchFaceStyle.Builder(TeradataWatchService.this)
                     .setAcceptsTapEvents(true)
                     .setHideNotificationIndicator(true)
                     .build());
 
-            calendar = Calendar.getInstance();
+            wallClock = new WallClock(TimeZone.getDefault());
+
+            settingsSequence = settingsStore.sequence();
+            settings         = settings.with(settingsStore.flags());
+            settingsStore.addListener(settingsListener);
 
-            loadSavedPreferences();
             initializeComplications();
+            snapshotFile = new File(context.getFilesDir(), SNAPSHOT_FILE_NAME);
+            restoreSnapshot();
             initializeWatchFace(context);
+
+            WatchFaceResources resources = WatchFaceResources.acquire(context, resourcesCallback);
+            if (resources != null) {
+                applyResources(resources);
+            }
         }
 
-        // Pulls all user's preferences for watch face appearance.
-        private void loadSavedPreferences() {
-            showDate          = sharedPreferences.getBoolean(getString(R.string.always_show_date_pref),           false);
-            militaryTime      = sharedPreferences.getBoolean(getString(R.string.military_time_pref),              true);
-            ambientDrift      = sharedPreferences.getBoolean(getString(R.string.ambient_drift_pref),              true);
-            showSeconds       = sharedPreferences.getBoolean(getString(R.string.show_seconds_pref),               false);
-            batteryStatus     = sharedPreferences.getBoolean(getString(R.string.show_battery_status_pref),        true);
-            showNotifications = sharedPreferences.getBoolean(getString(R.string.saved_unread_notifications_pref), true);
+        /*
+         * Picks up settings written by the config activity. Unless the store's change sequence
+         * moved on this is a single int read.
+         */
+        private void loadSettings() {
+            int sequence = settingsStore.sequence();
+            if (sequence != settingsSequence) {
+                settingsSequence = sequence;
+                applySettings(settings.with(settingsStore.flags()));
+            }
+        }
 
-            updateTimer();
+        private void applySettings(WatchFaceSettings updated) {
+            int changed = updated.changedFrom(settings);
+            settings = updated;
+            if (changed == 0) {
+                return;
+            }
+
+            // The date is part of the static layer; in ambient mode it depends on the setting.
+            if ((changed & SettingsStore.SHOW_DATE) != 0) {
+                staticLayerDirty = true;
+            }
+            if ((changed & SettingsStore.SHOW_SECONDS) != 0) {
+                updateTimer();
+            }
+            requestRedraw();
         }
 
         private void initializeComplications() {
             Log.d(TAG, "initializeComplications()");
             setDefaultSystemComplicationProvider(BATTERY_STATUS_COMPLICATION_ID, SystemProviders.WATCH_BATTERY, ComplicationData.TYPE_RANGED_VALUE);
 
-            activeComplicationDataCache = new SparseArray<>(3);
-
-            ComplicationDrawable upperComplicationDrawable = (ComplicationDrawable) getDrawable(R.drawable.custom_complication_styles);
-            if (upperComplicationDrawable != null) {
-                upperComplicationDrawable.setContext(getApplicationContext());
-                upperComplicationDrawable.setTextTypefaceActive(teradataFont);
-            }
-
-            ComplicationDrawable lowerComplicationDrawable = (ComplicationDrawable) getDrawable(R.drawable.custom_complication_styles);
-            if (lowerComplicationDrawable != null) {
-                lowerComplicationDrawable.setContext(getApplicationContext());
-                lowerComplicationDrawable.setTextTypefaceActive(teradataFont);
+            activeComplicationDataCache = new SparseArray<>(COMPLICATION_IDS.length);
+            receivedComplicationData    = new SparseArray<>(COMPLICATION_IDS.length);
+
+            int slots = complicationSlots.count();
+            complicationDrawables = new ComplicationDrawable[slots];
+            complicationCaches    = new ComplicationCache[slots];
+            for (int slot = 0; slot < slots; slot++) {
+                ComplicationDrawable complicationDrawable = (ComplicationDrawable) getDrawable(R.drawable.custom_complication_styles);
+                complicationDrawable.setContext(getApplicationContext());
+                complicationDrawable.setCallback(complicationDrawableCallback);
+                complicationDrawables[slot] = complicationDrawable;
+                complicationCaches[slot]    = new ComplicationCache();
             }
 
-            complicationDrawableSparseArray = new SparseArray<>(COMPLICATION_IDS.length);
-            complicationDrawableSparseArray.put(UPPER_COMPLICATION_ID, upperComplicationDrawable);
-            complicationDrawableSparseArray.put(LOWER_COMPLICATION_ID, lowerComplicationDrawable);
-
-            complicationIds.add(UPPER_COMPLICATION_ID);
-            complicationIds.add(LOWER_COMPLICATION_ID);
-
             setActiveComplications(COMPLICATION_IDS);
         }
 
         private void initializeWatchFace(Context context) {
-            currentDate   = new Date();
-            dateFormatter = new SimpleDateFormat("E d ", Locale.getDefault());
-
-            // Retrieve the teradata logo bitmaps
-            Drawable logo = context.getDrawable(R.drawable.teradata_logo);
-            teradataLogo = logo != null ? ((BitmapDrawable)logo).getBitmap() : null;
-            logo = context.getDrawable(R.drawable.teradata_logo_ambiant);
-            teradataLogoAmbient = logo != null ? ((BitmapDrawable)logo).getBitmap() : null;
+            timeText  = new TimeText(LOCAL);
+            dateText  = new DateText(LOCAL);
+            faceFrame = new FaceFrame(timeText);
 
             // Initializes background.
             backgroundPaint = new Paint();
             backgroundPaint.setColor(ContextCompat.getColor(context, R.color.background));
 
-            // Load the teradata font
-
-            teradataFont = ResourcesCompat.getFont(context, R.font.afterheadline);
+            // Ambient logos are coverage masks of the grey artwork, so they show as drawn.
+            logoPaint.setColor(Color.WHITE);
+            litBudget = getResources().getInteger(R.integer.ambient_lit_budget_percent) / 100f;
 
             // Colours
             primaryColour   = ContextCompat.getColor(context, R.color.primary_text);
@@ -299,25 +458,21 @@ public class TeradataWatchService extends CanvasWatchFaceService {
 
             // Initializes Watch Face.
             primaryPaint = new Paint();
-            primaryPaint.setTypeface(teradataFont);
             primaryPaint.setAntiAlias(true);
             primaryPaint.setColor(primaryColour);
             primaryPaint.setStrokeWidth(1);
 
             secondaryPaint = new Paint();
-            secondaryPaint.setTypeface(teradataFont);
             secondaryPaint.setTextSize(22f);
             secondaryPaint.setAntiAlias(true);
             secondaryPaint.setColor(secondaryColour);
 
             centerLinePaint = new Paint();
-            centerLinePaint.setTypeface(teradataFont);
             centerLinePaint.setTextSize(22f);
             centerLinePaint.setAntiAlias(true);
             centerLinePaint.setColor(secondaryColour);
 
             tertiaryPaint = new Paint();
-            tertiaryPaint.setTypeface(teradataFont);
             tertiaryPaint.setTextSize(22f);
             tertiaryPaint.setAntiAlias(true);
             tertiaryPaint.setColor(primaryColour);
@@ -329,67 +484,228 @@ public class TeradataWatchService extends CanvasWatchFaceService {
             notificationPaint.setStyle(Paint.Style.STROKE);
 
 
-            logoBound.set(0, 0, teradataLogo.getWidth(), teradataLogo.getHeight());
+            primaryPaint.setTextSize(getResources().getDimension(R.dimen.digital_text_size));
+        }
+
+        /*
+         * Finishes setting up once the shared font and logos are loaded. Until then onDraw only
+         * draws a placeholder frame.
+         */
+        private final WatchFaceResources.Callback resourcesCallback = new WatchFaceResources.Callback() {
+            @Override
+            public void onResourcesReady(WatchFaceResources resources) {
+                applyResources(resources);
+            }
+
+            @Override
+            public void onResourcesFailed(Throwable error) {
+                // Keeps drawing the placeholder; an engine created later loads them again.
+                Log.w(TAG, "Drawing without the watch face resources: " + error);
+            }
+        };
+
+        private void applyResources(WatchFaceResources resources) {
+            watchFaceResources  = resources;
+            teradataFont        = resources.typeface;
+
+            primaryPaint.setTypeface(teradataFont);
+            secondaryPaint.setTypeface(teradataFont);
+            centerLinePaint.setTypeface(teradataFont);
+            tertiaryPaint.setTypeface(teradataFont);
+
+            for (int slot = 0; slot < complicationSlots.count(); slot++) {
+                complicationDrawables[slot].setTextTypefaceActive(teradataFont);
+                complicationCaches[slot].invalidate();
+            }
+
+            updateLayout();
+            forceRedraw();
         }
 
         @Override
         public void onDestroy() {
             updateTimeHandler.removeMessages(MSG_UPDATE_TIME);
+            updateTimeHandler.removeMessages(MSG_APPLY_COMPLICATIONS);
+            updateTimeHandler.removeMessages(MSG_COMPLICATIONS_COMPARED);
+            destroyed = true;
+            if (snapshotPending) {
+                updateTimeHandler.removeCallbacks(snapshotWriter);
+                snapshotWriter.run();
+            }
+            if (staticLayer != null) {
+                staticLayer.recycle();
+                staticLayer = null;
+            }
+            digitAtlas.release();
+            logoBitmaps.release();
+            settingsStore.removeListener(settingsListener);
+            WatchFaceResources.release(resourcesCallback);
+            for (ComplicationCache complicationCache : complicationCaches) {
+                complicationCache.release();
+            }
             super.onDestroy();
         }
 
         @Override
         public void onComplicationDataUpdate(int complicationId, ComplicationData complicationData) {
-            Log.d(TAG, "onComplicationDataUpdate() id: " + complicationId);
-
-            // Adds/updates active complication data in the array.
-            activeComplicationDataCache.put(complicationId, complicationData);
-
-            if (complicationIds.contains(complicationId)) {
-                // Updates correct ComplicationDrawable with updated data.
-                ComplicationDrawable complicationDrawable = complicationDrawableSparseArray.get(complicationId);
-                complicationDrawable.setComplicationData(complicationData);
+            updatesReceived++;
+            if (BuildConfig.TRACING) TraceLog.trace(TraceLog.COMPLICATION_UPDATE, complicationId);
+            receivedComplicationData.put(complicationId, complicationData);
+            if (!updateTimeHandler.hasMessages(MSG_APPLY_COMPLICATIONS)) {
+                updateTimeHandler.sendEmptyMessageDelayed(MSG_APPLY_COMPLICATIONS, COMPLICATION_BATCH_MS);
+            }
+        }
 
-                invalidate();
+        /*
+         * Closes the batch window and hands the updates to the shared executor to be compared
+         * with what is shown. Only one batch is compared at a time, so the data it was compared
+         * with is still what is shown when it is applied.
+         */
+        private void applyComplicationUpdates() {
+            if (comparingComplications || receivedComplicationData.size() == 0) {
+                return;
             }
+            if (BuildConfig.TRACING) TraceLog.trace(TraceLog.COMPLICATION_BATCH, receivedComplicationData.size());
+            comparingComplications = true;
+            SharedExecutor.get().execute(new ComplicationBatch(receivedComplicationData, activeComplicationDataCache, updateTimeHandler));
+            receivedComplicationData.clear();
         }
 
         /*
-         * Determines if tap inside a complication area or returns -1.
+         * Applies a compared batch. Updates matching what is already shown are dropped, and the
+         * face is redrawn at most once for the whole batch.
          */
-        private int getTappedComplicationId(int x, int y) {
+        private void applyComparedUpdates(ComplicationBatch batch) {
+            comparingComplications = false;
+            if (destroyed) {
+                return;
+            }
 
-            ComplicationData complicationData;
-            ComplicationDrawable complicationDrawable;
+            boolean applied      = false;
+            boolean redraw       = false;
+            boolean slotsChanged = false;
+            for (int i = 0; i < batch.ids.length; i++) {
+                int complicationId = batch.ids[i];
+                ComplicationData complicationData = batch.updates[i];
+                if (batch.unchanged[i]) {
+                    updatesDeduplicated++;
+                    continue;
+                }
 
-            long currentTimeMillis = System.currentTimeMillis();
+                // Adds/updates active complication data in the array.
+                activeComplicationDataCache.put(complicationId, complicationData);
+                applied = true;
 
-            for (int complicationId : complicationIds) {
-                complicationData = activeComplicationDataCache.get(complicationId);
+                int slot = complicationSlots.indexOf(complicationId);
+                if (slot != ComplicationSlots.NONE) {
+                    // Updates correct ComplicationDrawable with updated data.
+                    complicationDrawables[slot].setComplicationData(complicationData);
+                    complicationCaches[slot].invalidate();
+                    slotsChanged = true;
+                }
+                redraw |= slot != ComplicationSlots.NONE || complicationId == BATTERY_STATUS_COMPLICATION_ID;
+            }
 
-                if ((complicationData != null)
-                        && (complicationData.isActive(currentTimeMillis))
-                        && (complicationData.getType() != ComplicationData.TYPE_NOT_CONFIGURED)
-                        && (complicationData.getType() != ComplicationData.TYPE_EMPTY)) {
+            if (redraw) {
+                updateRedraws++;
+                requestRedraw();
+            }
+            if (slotsChanged) {
+                // New text may change sooner than the wake-up already armed.
+                scheduleNextWake();
+            }
+            if (applied) {
+                scheduleSnapshot();
+            }
 
-                    complicationDrawable = complicationDrawableSparseArray.get(complicationId);
-                    Rect complicationBoundingRect = complicationDrawable.getBounds();
+            // Updates that arrived while the batch was compared.
+            if (receivedComplicationData.size() > 0 && !updateTimeHandler.hasMessages(MSG_APPLY_COMPLICATIONS)) {
+                updateTimeHandler.sendEmptyMessageDelayed(MSG_APPLY_COMPLICATIONS, COMPLICATION_BATCH_MS);
+            }
+        }
 
-                    if (complicationBoundingRect.width() > 0) {
-                        if (complicationBoundingRect.contains(x, y)) {
-                            return complicationId;
+        /*
+         * Shows the complication data and surface saved by a previous process, so the first
+         * frame is complete before the providers push their data again.
+         */
+        private void restoreSnapshot() {
+            ComplicationSnapshot snapshot = ComplicationSnapshot.read(snapshotFile, BuildConfig.VERSION_CODE, Build.FINGERPRINT);
+            if (snapshot == null) {
+                return;
+            }
+
+            surfaceWidth  = snapshot.surfaceWidth;
+            surfaceHeight = snapshot.surfaceHeight;
+            isRound       = snapshot.isRound;
+            for (int i = 0; i < snapshot.data.size(); i++) {
+                int complicationId = snapshot.data.keyAt(i);
+                ComplicationData complicationData = snapshot.data.valueAt(i);
+                activeComplicationDataCache.put(complicationId, complicationData);
+                int slot = complicationSlots.indexOf(complicationId);
+                if (slot != ComplicationSlots.NONE) {
+                    complicationDrawables[slot].setComplicationData(complicationData);
+                }
+            }
+        }
+
+        // Saves the snapshot a little after the last update, so a burst of updates is one write.
+        private void scheduleSnapshot() {
+            updateTimeHandler.removeCallbacks(snapshotWriter);
+            updateTimeHandler.postDelayed(snapshotWriter, SNAPSHOT_DELAY_MS);
+            snapshotPending = true;
+        }
+
+        private final Runnable snapshotWriter = new Runnable() {
+            @Override
+            public void run() {
+                snapshotPending = false;
+                final ComplicationSnapshot snapshot = new ComplicationSnapshot();
+                snapshot.surfaceWidth  = surfaceWidth;
+                snapshot.surfaceHeight = surfaceHeight;
+                snapshot.isRound       = isRound;
+                for (int i = 0; i < activeComplicationDataCache.size(); i++) {
+                    snapshot.data.put(activeComplicationDataCache.keyAt(i), activeComplicationDataCache.valueAt(i));
+                }
+
+                // ComplicationData is immutable, so encoding can happen off the main thread.
+                final File file = snapshotFile;
+                AsyncTask.SERIAL_EXECUTOR.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            ComplicationSnapshot.write(file, snapshot.encode(BuildConfig.VERSION_CODE, Build.FINGERPRINT));
+                        } catch (IOException e) {
+                            Log.w(TAG, "Unable to encode snapshot: " + e);
                         }
-                    } else {
-                        Log.e(TAG, "Not a recognized complication id.");
                     }
-                }
+                });
+            }
+        };
+
+        /*
+         * Determines if tap inside a complication area or returns -1. The slot is found through
+         * the hit grid; only its data is checked.
+         */
+        private int getTappedComplicationId(int x, int y) {
+            int slot = complicationSlots.slotAt(x, y);
+            if (slot == ComplicationSlots.NONE) {
+                return -1;
+            }
+
+            int complicationId = complicationSlots.id(slot);
+            ComplicationData complicationData = activeComplicationDataCache.get(complicationId);
+            if ((complicationData != null)
+                    && (complicationData.isActive(System.currentTimeMillis()))
+                    && (complicationData.getType() != ComplicationData.TYPE_NOT_CONFIGURED)
+                    && (complicationData.getType() != ComplicationData.TYPE_EMPTY)) {
+                return complicationId;
             }
             return -1;
         }
 
         // Fires PendingIntent associated with complication (if it has one).
         private void onComplicationTap(int complicationId) {
-            Log.d(TAG, "onComplicationTap()");
+            if (BuildConfig.TRACING) TraceLog.trace(TraceLog.COMPLICATION_TAP, complicationId);
 
             ComplicationData complicationData =
                     activeComplicationDataCache.get(complicationId);
@@ -420,17 +736,23 @@ public class TeradataWatchService extends CanvasWatchFaceService {
         @Override
         public void onVisibilityChanged(boolean visible) {
             super.onVisibilityChanged(visible);
+            if (BuildConfig.TRACING) TraceLog.trace(TraceLog.VISIBILITY, visible ? 1 : 0);
 
             if (visible) {
 
-                // Preferences might have changed since last time watch face was visible.
-                loadSavedPreferences();
+                // The config activity may have changed the settings while it covered the face.
+                loadSettings();
 
                 registerReceiver();
 
-                // Update time zone in case it changed while we weren't visible.
-                calendar.setTimeZone(TimeZone.getDefault());
-                invalidate();
+                // Update time zone in case it changed while we weren't visible. The cached offset
+                // period is in absolute time, so a clock set missed meanwhile leaves it valid;
+                // only a different zone needs the transition search again.
+                TimeZone zone = TimeZone.getDefault();
+                if (!zone.getID().equals(wallClock.timeZone().getID())) {
+                    wallClock.setTimeZone(zone);
+                }
+                forceRedraw();
             } else {
                 unregisterReceiver();
             }
@@ -442,13 +764,13 @@ public class TeradataWatchService extends CanvasWatchFaceService {
 
         @Override
         public void onUnreadCountChanged(int count) {
-            Log.d(TAG, "onUnreadCountChanged(): " + count);
+            if (BuildConfig.TRACING) TraceLog.trace(TraceLog.UNREAD_COUNT, count);
 
-            if (showNotifications) {
+            if (settings.showNotifications) {
 
                 if (numberOfUnreadNotifications != count) {
                     numberOfUnreadNotifications = count;
-                    invalidate();
+                    requestRedraw();
                 }
             }
         }
@@ -459,6 +781,7 @@ public class TeradataWatchService extends CanvasWatchFaceService {
             }
             mRegisteredTimeZoneReceiver = true;
             IntentFilter filter = new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED);
+            filter.addAction(Intent.ACTION_TIME_CHANGED);
             TeradataWatchService.this.registerReceiver(mTimeZoneReceiver, filter);
         }
 
@@ -476,18 +799,11 @@ public class TeradataWatchService extends CanvasWatchFaceService {
 
             // Load resources that have alternate values for round watches.
             Resources resources = TeradataWatchService.this.getResources();
-            boolean isRound = insets.isRound();
+            isRound = insets.isRound();
             float textSize = resources.getDimension(isRound ? R.dimen.digital_text_size_round : R.dimen.digital_text_size);
             primaryPaint.setTextSize(textSize);
 
-            // Calculate ambient rectangle
-            primaryPaint.getTextBounds("88", 0, 2, ambientShift);
-            ambientShift.set(midpointOfScreen - ambientShift.width() / 2, midpointOfScreen - ambientShift.height() - LINE_OFFSET, midpointOfScreen * 2 - LINE_OFFSET, midpointOfScreen + ambientShift.height() + LINE_OFFSET);
-
-            ambientSize.set(
-                    (int)sqrt(pow(midpointOfScreen, 2) - pow(ambientShift.height() / 2, 2)) - ambientShift.width()  / 2,
-                    (int)sqrt(pow(midpointOfScreen, 2) - pow(ambientShift.width()  / 2, 2)) - ambientShift.height() / 2
-            );
+            updateLayout();
         }
 
         @Override
@@ -495,20 +811,20 @@ public class TeradataWatchService extends CanvasWatchFaceService {
             super.onPropertiesChanged(properties);
             lowBitAmbient = properties.getBoolean(PROPERTY_LOW_BIT_AMBIENT,    false);
             burnInProtection = properties.getBoolean(PROPERTY_BURN_IN_PROTECTION, false);
-            lastHours = null;
+            staticLayerDirty = true;
 
-            ComplicationDrawable complicationDrawable;
-            for (int complicationId : complicationIds) {
-                complicationDrawable = complicationDrawableSparseArray.get(complicationId);
-                complicationDrawable.setLowBitAmbient(lowBitAmbient);
-                complicationDrawable.setBurnInProtection(burnInProtection);
+            for (int slot = 0; slot < complicationSlots.count(); slot++) {
+                complicationDrawables[slot].setLowBitAmbient(lowBitAmbient);
+                complicationDrawables[slot].setBurnInProtection(burnInProtection);
+                complicationCaches[slot].invalidate();
             }
         }
 
         @Override
         public void onTimeTick() {
             super.onTimeTick();
-            invalidate();
+            wakeUps++;
+            requestRedraw();
         }
 
         @Override
@@ -526,16 +842,14 @@ public class TeradataWatchService extends CanvasWatchFaceService {
             secondaryPaint.setColor   (ambientMode ? ambientColour : secondaryColour);
             tertiaryPaint.setColor    (ambientMode ? ambientColour : primaryColour);
             notificationPaint.setColor(ambientMode ? ambientColour : secondaryColour);
+            updateTextMetrics();
 
-            ComplicationDrawable complicationDrawable;
-            for (int complicationId : complicationIds) {
-                complicationDrawable = complicationDrawableSparseArray.get(complicationId);
-                complicationDrawable.setInAmbientMode(ambientMode);
+            for (int slot = 0; slot < complicationSlots.count(); slot++) {
+                complicationDrawables[slot].setInAmbientMode(ambientMode);
+                complicationCaches[slot].invalidate();
             }
 
-            // Reset the drifting back to normal
-            ambientOffset.x = 0;
-            ambientOffset.y = 0;
+            staticLayerDirty = true;
 
             // Whether the timer should be running depends on whether we're visible (as well as
             // whether we're in ambient mode), so we may need to start or stop the timer.
@@ -546,7 +860,7 @@ public class TeradataWatchService extends CanvasWatchFaceService {
         public void onInterruptionFilterChanged(int interruptionFilter) {
             super.onInterruptionFilterChanged(interruptionFilter);
             boolean inMuteMode = (interruptionFilter == TeradataWatchService.INTERRUPTION_FILTER_NONE);
-            Log.d(TAG, "Changing muteMode: " + inMuteMode);
+            if (BuildConfig.TRACING) TraceLog.trace(TraceLog.MUTE_MODE, inMuteMode ? 1 : 0);
 
             /* Dim display in mute mode. */
             if (muteMode != inMuteMode) {
@@ -554,7 +868,8 @@ public class TeradataWatchService extends CanvasWatchFaceService {
                 primaryPaint.setAlpha  (muteMode ? 100 : 255);
                 secondaryPaint.setAlpha(100);
                 tertiaryPaint.setAlpha (255);
-                invalidate();
+                staticLayerDirty = true;
+                requestRedraw();
             }
         }
 
@@ -564,7 +879,7 @@ public class TeradataWatchService extends CanvasWatchFaceService {
          */
         @Override
         public void onTapCommand(int tapType, int x, int y, long eventTime) {
-            Log.d(TAG, "OnTapCommand()");
+            if (BuildConfig.TRACING) TraceLog.trace(TraceLog.TAP, tapType);
             switch (tapType) {
                 case TAP_TYPE_TOUCH:
                     // The user has started touching the screen.
@@ -579,137 +894,462 @@ public class TeradataWatchService extends CanvasWatchFaceService {
                     }
                     // The user has completed the tap gesture.
 //                    Toast.makeText(getApplicationContext(), R.string.message, Toast.LENGTH_SHORT).show();
+                    requestRedraw();
                     break;
             }
-            invalidate();
         }
 
         @Override
         public void onSurfaceChanged(SurfaceHolder holder, int format, int width, int height) {
-            // Find the mid point of the screen.
-            int sizeOfComplication = (int)(width / 6.5);
-            Log.d(TAG, "****** Size: " + sizeOfComplication);
-            if (sizeOfComplication % 2 == 1) sizeOfComplication--;
-            midpointOfScreen = height / 2;
-            int leftStart = (midpointOfScreen - sizeOfComplication) / 2 - LINE_OFFSET * 2;
-            int voffset = LINE_OFFSET;
+            surfaceWidth  = width;
+            surfaceHeight = height;
+            updateLayout();
+
+            if (staticLayer == null || staticLayer.getWidth() != width || staticLayer.getHeight() != height) {
+                if (staticLayer != null) {
+                    staticLayer.recycle();
+                }
+                // Always fully painted, so it needs no alpha.
+                staticLayer = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+                staticLayerCanvas = new Canvas(staticLayer);
+            }
+            staticLayerDirty = true;
+        }
+
+        /**
+         * Looks up the layout for the current surface, insets and text size and applies the
+         * complication bounds. Called whenever one of those inputs changes.
+         */
+        private void updateLayout() {
+            if (watchFaceResources == null || surfaceWidth == 0 || surfaceHeight == 0) {
+                // Applied again once the font and surface size are known.
+                return;
+            }
+            int background = backgroundPaint.getColor();
+            if (!logoBitmaps.isFor(surfaceWidth, background)
+                    && !logoBitmaps.build(getResources(), surfaceWidth, background)) {
+                // Tried again on the next layout change; the placeholder shows meanwhile.
+                layout = null;
+                return;
+            }
 
-            logoBound.offsetTo(width - logoBound.width() - LINE_OFFSET, midpointOfScreen - LINE_OFFSET - logoBound.height());
+            primaryPaint.getTextBounds("88", 0, 2, digitBounds);
+            layout = WatchFaceLayout.of(surfaceWidth, surfaceHeight, isRound, primaryPaint.getTextSize(),
+                    digitBounds.width(), digitBounds.height(), logoBitmaps.width(), logoBitmaps.height());
+            if (driftPath == null || !driftPath.isFor(layout.ambientSizeX, layout.ambientSizeY)) {
+                driftPath = new AmbientDriftPath(layout.ambientSizeX, layout.ambientSizeY);
+            }
+            faceFrame.setLayout(layout, driftPath);
+            if (!digitAtlas.isFor(primaryPaint.getTypeface(), primaryPaint.getTextSize(), timeText.zeroDigit())) {
+                digitAtlas.build(primaryPaint, timeText.zeroDigit());
+            }
 
-            //Rect topLeftBounds = new Rect(edge, edge, edge + sizeOfComplication, edge + sizeOfComplication);
-            Rect upperBounds = new Rect(leftStart, midpointOfScreen - sizeOfComplication - voffset, leftStart + sizeOfComplication, midpointOfScreen - voffset);
-            ComplicationDrawable topLeftComplicationDrawable = complicationDrawableSparseArray.get(UPPER_COMPLICATION_ID);
-            topLeftComplicationDrawable.setBounds(upperBounds);
+            complicationSlots.layout(surfaceWidth, surfaceHeight);
+            for (int slot = 0; slot < complicationSlots.count(); slot++) {
+                complicationDrawables[slot].setBounds(complicationSlots.left(slot), complicationSlots.top(slot),
+                        complicationSlots.right(slot), complicationSlots.bottom(slot));
+                complicationCaches[slot].setBounds(complicationDrawables[slot].getBounds());
+            }
+
+            updateTextMetrics();
+            staticLayerDirty = true;
+        }
 
-            //Rect bottomLeftBounds = new Rect(edge, width - edge - sizeOfComplication, edge + sizeOfComplication, width - edge);
-            Rect lowerBounds = new Rect(leftStart, midpointOfScreen + voffset, leftStart + sizeOfComplication, midpointOfScreen + sizeOfComplication + voffset);
-            ComplicationDrawable bottomLeftComplicationDrawable = complicationDrawableSparseArray.get(LOWER_COMPLICATION_ID);
-            bottomLeftComplicationDrawable.setBounds(lowerBounds);
+        // Picks the metrics tables for the paints' current typeface, size and anti-aliasing.
+        private void updateTextMetrics() {
+            if (layout == null) {
+                return;
+            }
+            timeMetrics = TextMetrics.of(primaryPaint, timeText.zeroDigit());
+            faceFrame.setWidths(timeMetrics);
+            dateMetrics = TextMetrics.of(secondaryPaint, dateText);
+            measureDate();
+        }
 
-            notificationPoint.set(width / 2, height - 20);
+        private void measureDate() {
+            dateLitArea = -1;
+            dateMetrics.dateBounds(dateText, dateBounds);
+            dateBounds.offsetTo(layout.dateLeft(dateBounds.width()), layout.dateBaseline(dateBounds.height()));
         }
 
         @Override
         public void onDraw(Canvas canvas, Rect bounds) {
 
-            ambientOffset.x = 0;
-            ambientOffset.y = 0;
-
             now = System.currentTimeMillis();
-            calendar.setTimeInMillis(now);
-            currentDate.setTime(now);
+            wallClock.set(now);
 
+            if (layout == null) {
+                // Resources still loading, or the surface size not known yet.
+                drawPlaceholder(canvas, bounds);
+                placeholderFrames++;
+                return;
+            }
+            if (firstFrameAt == 0) {
+                firstFrameAt = SystemClock.elapsedRealtime();
+            }
+
+            updateDate();
+            faceFrame.update(wallClock, now, ambientMode, settings.ambientDrift, settings.militaryTime, settings.showSeconds);
+
+            long start = BuildConfig.FRAME_PROFILING ? System.nanoTime() : 0;
+            updateAmbientLevel();
+            if (BuildConfig.FRAME_PROFILING) start = profiler.mark(ambientMode, FrameProfiler.SECTION_LIT_BUDGET, start);
             drawBackground(canvas, bounds);
+            if (BuildConfig.FRAME_PROFILING) start = profiler.mark(ambientMode, FrameProfiler.SECTION_BACKGROUND, start);
             drawFace(canvas, bounds);
+            if (BuildConfig.FRAME_PROFILING) start = profiler.mark(ambientMode, FrameProfiler.SECTION_FACE, start);
             drawUnreadNotificationIcon(canvas);
+            if (BuildConfig.FRAME_PROFILING) start = profiler.mark(ambientMode, FrameProfiler.SECTION_NOTIFICATIONS, start);
             drawComplications(canvas, now);
+            if (BuildConfig.FRAME_PROFILING) profiler.mark(ambientMode, FrameProfiler.SECTION_COMPLICATIONS, start);
+
+            framesDrawn++;
+            captureRenderState(drawnState, now);
+        }
+
+        /**
+         * Adds the frame counters and, when compiled in, the event trace and section timings to
+         * the service's dumpsys output. Pass "reset" to clear the timings afterwards.
+         */
+        @Override
+        protected void dump(final String prefix, FileDescriptor fd, final PrintWriter writer, String[] args) {
+            super.dump(prefix, fd, writer, args);
+            writer.print(prefix);
+            writer.println("Frames requested: " + framesRequested + ", drawn: " + framesDrawn + ", wake-ups: " + wakeUps);
+            writer.print(prefix);
+            writer.println("Complication updates received: " + updatesReceived + ", deduplicated: " + updatesDeduplicated
+                    + ", batches redrawn: " + updateRedraws);
+            writer.print(prefix);
+            writer.println("Time zone offset lookups: " + wallClock.offsetLookups());
+            writer.print(prefix);
+            writer.println("Ambient lit ratio: " + (litRatio < 0 ? "not measured" : Math.round(litRatio * 1000) / 10f + "%")
+                    + " (budget " + Math.round(litBudget * 100) + "%), style " + AMBIENT_LEVEL_NAMES[ambientLevel]);
+            dumpBitmapMemory(prefix, writer);
+            writer.print(prefix);
+            writer.print("Start-up: placeholder frames: " + placeholderFrames);
+            if (watchFaceResources != null) {
+                writer.print(", resources loaded in " + watchFaceResources.loadMillis + " ms");
+            }
+            if (firstFrameAt != 0) {
+                writer.print(", first frame " + (firstFrameAt - createdAt) + " ms after onCreate, "
+                        + (firstFrameAt - Process.getStartElapsedRealtime()) + " ms after process start");
+            }
+            writer.println();
+            if (BuildConfig.TRACING) {
+                TraceLog.dump(prefix, writer);
+            }
+            if (BuildConfig.FRAME_PROFILING) {
+                final boolean reset = args != null && args.length > 0 && "reset".equals(args[args.length - 1]);
+                dumpProfiler(prefix, writer, reset);
+            }
+        }
+
+        /*
+         * onDraw writes the timings on the main thread, so they are read there too, keeping a
+         * dump from sorting samples that are being overwritten. Gives up if the main thread is
+         * stuck, which is when a dump is wanted most.
+         */
+        private void dumpProfiler(final String prefix, final PrintWriter writer, final boolean reset) {
+            FutureTask<Void> task = new FutureTask<>(new Runnable() {
+                @Override
+                public void run() {
+                    profiler.dump(prefix, writer);
+                    if (reset) {
+                        profiler.reset();
+                    }
+                }
+            }, null);
+
+            if (Looper.myLooper() == updateTimeHandler.getLooper()) {
+                task.run();
+                return;
+            }
+            updateTimeHandler.post(task);
+            try {
+                task.get(PROFILER_DUMP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                task.cancel(false);
+                writer.print(prefix);
+                writer.println("Frame timings unavailable: main thread busy for " + PROFILER_DUMP_TIMEOUT_MS + " ms");
+            } catch (InterruptedException e) {
+                task.cancel(false);
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                writer.print(prefix);
+                writer.println("Frame timings unavailable: " + e.getCause());
+            }
+        }
+
+        // Bytes of every bitmap this engine holds.
+        private void dumpBitmapMemory(String prefix, PrintWriter writer) {
+            int staticBytes = staticLayer != null ? staticLayer.getAllocationByteCount() : 0;
+            int complicationBytes = 0;
+            for (ComplicationCache complicationCache : complicationCaches) {
+                complicationBytes += complicationCache.byteCount();
+            }
+            int total = staticBytes + logoBitmaps.byteCount() + digitAtlas.byteCount() + complicationBytes;
+
+            writer.print(prefix);
+            writer.println("Bitmap memory: " + total / 1024 + " KiB (static layer " + staticBytes
+                    + ", logo " + logoBitmaps.byteCount() + ", digits " + digitAtlas.byteCount()
+                    + ", complications " + complicationBytes + " bytes)");
+        }
+
+        /**
+         * Invalidates the watch face only if the next frame would differ from the last one drawn.
+         */
+        private void requestRedraw() {
+            framesRequested++;
+            long now = System.currentTimeMillis();
+            captureRenderState(pendingState, now);
+            if (staticLayerDirty || !pendingState.matches(drawnState) || complicationsStale(now)) {
+                invalidate();
+            }
+        }
+
+        // Whether a visible complication slot has to be rendered again, e.g. a countdown ticked.
+        private boolean complicationsStale(long now) {
+            if (ambientMode) {
+                return false;
+            }
+            for (int slot = 0; slot < complicationSlots.count(); slot++) {
+                if (complicationCaches[slot].isStale(activeComplicationDataCache.get(complicationSlots.id(slot)), now)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /*
+         * Receives invalidations from the complication drawables, which happen when an icon or
+         * image finishes loading, and renders the slot again.
+         */
+        private final Drawable.Callback complicationDrawableCallback = new Drawable.Callback() {
+            @Override
+            public void invalidateDrawable(Drawable who) {
+                for (int slot = 0; slot < complicationSlots.count(); slot++) {
+                    if (complicationDrawables[slot] == who) {
+                        complicationCaches[slot].invalidate();
+                        requestRedraw();
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            public void scheduleDrawable(Drawable who, Runnable what, long when) {
+                updateTimeHandler.postAtTime(what, who, when);
+            }
+
+            @Override
+            public void unscheduleDrawable(Drawable who, Runnable what) {
+                updateTimeHandler.removeCallbacks(what, who);
+            }
+        };
+
+        /**
+         * Invalidates the watch face regardless of the render state, for changes the state does
+         * not cover such as a new surface.
+         */
+        private void forceRedraw() {
+            drawnState.invalidate();
+            requestRedraw();
+        }
+
+        // Fills the render state for the given time from the current settings and data.
+        private void captureRenderState(RenderState state, long timeMillis) {
+            wallClock.set(timeMillis);
+
+            state.hours   = timeText.hours(wallClock.hour, settings.militaryTime);
+            state.minutes = timeText.twoDigits(wallClock.minute);
+            state.seconds = settings.showSeconds && !ambientMode ? timeText.twoDigits(wallClock.second) : null;
+            state.dayKey  = wallClock.dayKey();
+
+            state.flags = settings.flags
+                        | (ambientMode ? RenderState.MODE_AMBIENT : 0)
+                        | (muteMode    ? RenderState.MODE_MUTE    : 0);
+
+            // Only whether there are unread notifications is shown, not how many.
+            state.unreadCount = settings.showNotifications && numberOfUnreadNotifications > 0 ? 1 : 0;
+
+            ComplicationData battery = settings.batteryStatus ? activeComplicationDataCache.get(BATTERY_STATUS_COMPLICATION_ID) : null;
+            state.battery = battery != null && !ambientMode ? battery.getValue() : -1f;
+
+            // Where the face would drift to at that time, not where the last frame put it.
+            boolean drifting = ambientMode && settings.ambientDrift;
+            state.offsetX = faceFrame.driftX(timeMillis, drifting);
+            state.offsetY = faceFrame.driftY(timeMillis, drifting);
+
+            // Complications are not drawn in ambient mode.
+            for (int i = 0; i < COMPLICATION_IDS.length; i++) {
+                state.complications[i] = ambientMode ? null : activeComplicationDataCache.get(COMPLICATION_IDS[i]);
+            }
+            state.setValid();
+        }
+
+        // Rebuilds the date when the day changes; the date lives in the static layer.
+        private void updateDate() {
+            if (dateText.update(wallClock)) {
+                if (BuildConfig.TRACING) TraceLog.trace(TraceLog.DATE_CHANGE, framesDrawn);
+                framesRequested     = 0;
+                framesDrawn         = 0;
+                wakeUps             = 0;
+                updatesReceived     = 0;
+                updatesDeduplicated = 0;
+                updateRedraws       = 0;
+                measureDate();
+                staticLayerDirty = true;
+            }
         }
 
         private void drawBackground(Canvas canvas, Rect bounds) {
+            if (staticLayerDirty) {
+                drawStaticLayer(bounds);
+            }
+
             // Draw the background.
+            // In ambient mode the face sits at this minute's drift position, see FaceFrame.
             if (ambientMode) {
                 canvas.drawColor(Color.BLACK);
+            }
+            canvas.drawBitmap(staticLayer, faceFrame.offsetX, faceFrame.offsetY, null);
 
-                // If ambient movement enable then randomize where the face is displayed
-                if (ambientDrift) {
-                    ambientLength = Math.random() * 100;
-                    ambientPie = (int) Math.round(Math.random() * 360);
-                    ambientOffset.x = (int) (((ambientSize.x * Math.cos(Math.toRadians(ambientPie))) - ambientSize.x) / 100.0 * ambientLength);
-                    ambientOffset.y = (int) ((ambientSize.y * Math.sin(Math.toRadians(ambientPie))) / 100.0 * ambientLength);
-                }
-            } else {
-                canvas.drawRect(0, 0, bounds.width(), bounds.height(), backgroundPaint);
+            // The line spans the full width, so it is not shifted sideways with the drift.
+            if (ambientMode) {
+                canvas.drawLine(0, layout.midpoint + faceFrame.offsetY, bounds.width(), layout.midpoint + faceFrame.offsetY, secondaryPaint);
             }
         }
 
-        private void drawFace(Canvas canvas, Rect bounds) {
-            hours   = String.format(LOCAL, !militaryTime ? SINGLE_DIGIT : DOUBLE_DIGIT, calendar.get(militaryTime ? Calendar.HOUR_OF_DAY : Calendar.HOUR));
-            minutes = String.format(LOCAL, DOUBLE_DIGIT, calendar.get(Calendar.MINUTE));
-            if (hours.equals("0") && !militaryTime) hours = "12";
-            date    = dateFormatter.format(currentDate);
+        /**
+         * Redraws the static layer: background, centre line (interactive only), logo and date.
+         */
+        private void drawStaticLayer(Rect bounds) {
+            if (ambientMode) {
+                staticLayerCanvas.drawColor(Color.BLACK);
+            } else {
+                staticLayerCanvas.drawRect(0, 0, bounds.width(), bounds.height(), backgroundPaint);
 
-            if (!hours.equals(lastHours)) {
-                Log.d(TAG, "Hour change");
-                primaryPaint.getTextBounds(hours, 0, hours.length(), hourBounds);
-                lastHours = hours;
-                hourBounds.offsetTo((bounds.width() - hourBounds.width()) / 2, midpointOfScreen - (STROKE_WIDTH + LINE_OFFSET));
+                // midpointOfScreen line
+                staticLayerCanvas.drawLine(0, layout.midpoint, bounds.width(), layout.midpoint, secondaryPaint);
             }
 
-            if (!minutes.equals(lastMinutes)) {
-                Log.d(TAG, "Minute change");
-                primaryPaint.getTextBounds(minutes, 0, minutes.length(), minutesBounds);
-                lastMinutes = minutes;
-                minutesBounds.offsetTo((bounds.width() - minutesBounds.width()) / 2, midpointOfScreen + (STROKE_WIDTH + LINE_OFFSET) + minutesBounds.height());
+            // Logo / date
+            staticLayerCanvas.drawBitmap(logoBitmaps.forMode(ambientMode, lowBitAmbient), layout.logoLeft, layout.logoTop, logoPaint);
+            if (!ambientMode || settings.showDate) staticLayerCanvas.drawText(dateText.chars(), 0, dateText.length(), dateBounds.left, dateBounds.top, secondaryPaint);
+
+            staticLayerDirty = false;
+        }
+
+        /*
+         * With burn-in protection, keeps the first ambient style from solid down whose frame
+         * fits the lit budget, or the lightest. Any other frame is solid. The lit areas are
+         * measured up front, so this is a few additions per style.
+         */
+        private void updateAmbientLevel() {
+            int level = AMBIENT_SOLID;
+            if (ambientMode && burnInProtection) {
+                float surface = (float) surfaceWidth * surfaceHeight;
+                for (;; level++) {
+                    litRatio = ambientLitArea(level, faceFrame.hours, faceFrame.minutes) / surface;
+                    if (litRatio <= litBudget || level == AMBIENT_HAIRLINE) {
+                        break;
+                    }
+                }
             }
 
-            if (showSeconds) {
-                seconds = String.format(LOCAL, DOUBLE_DIGIT, calendar.get(Calendar.SECOND));
-                Log.d(TAG, "Second change");
+            if (level != ambientLevel) {
+                if (BuildConfig.TRACING) TraceLog.trace(TraceLog.AMBIENT_LEVEL, level);
+                ambientLevel = level;
+                logoPaint.setAlpha(level == AMBIENT_HAIRLINE ? DIMMED_LOGO_ALPHA : 255);
+                staticLayerDirty = true;
             }
+        }
+
+        // Pixels the ambient frame lights in a style, weighted by brightness, see LitPixelMeter.
+        private float ambientLitArea(int level, char[] hours, char[] minutes) {
+            int   variant = ambientDigitVariant(level);
+            float area    = (digitAtlas.litArea(hours, variant) + digitAtlas.litArea(minutes, variant))
+                          * LitPixelMeter.intensity(primaryPaint);
+
+            area += logoBitmaps.litArea(lowBitAmbient) * (level == AMBIENT_HAIRLINE ? DIMMED_LOGO_ALPHA : 255) / 255f;
 
-            if (!date.equals(lastDate) && (showDate || !ambientMode)) {
-                Log.d(TAG, "Date change");
-                secondaryPaint.getTextBounds(date, 0, date.length(), dateBounds);
-                lastDate = date;
-                dateBounds.offsetTo(logoBound.left + (logoBound.width() - dateBounds.width()) / 2, midpointOfScreen + dateBounds.height() + LINE_OFFSET);
+            // The centre line is a hairline across the surface.
+            area += surfaceWidth * LitPixelMeter.intensity(secondaryPaint);
+            if (settings.showDate) {
+                if (dateLitArea < 0) {
+                    dateLitArea = LitPixelMeter.textCoverage(dateText.chars(), 0, dateText.length(), secondaryPaint);
+                }
+                area += dateLitArea * LitPixelMeter.intensity(secondaryPaint);
+            }
+            if (settings.showNotifications && numberOfUnreadNotifications > 0) {
+                area += (float) (2 * Math.PI * NOTIFICATION_RADIUS * notificationPaint.getStrokeWidth())
+                      * LitPixelMeter.intensity(notificationPaint);
             }
+            return area;
+        }
+
+        // Just the time on the background, in the default font, while the resources load.
+        private void drawPlaceholder(Canvas canvas, Rect bounds) {
+            canvas.drawColor(backgroundPaint.getColor());
 
+            char[] hours   = timeText.hours(wallClock.hour, settings.militaryTime);
+            char[] minutes = timeText.twoDigits(wallClock.minute);
+            float centerX = bounds.exactCenterX();
+            float centerY = bounds.exactCenterY();
+            canvas.drawText(hours,   0, hours.length,   centerX - primaryPaint.measureText(hours,   0, hours.length)   / 2, centerY - LINE_OFFSET, primaryPaint);
+            canvas.drawText(minutes, 0, minutes.length, centerX - primaryPaint.measureText(minutes, 0, minutes.length) / 2, centerY + LINE_OFFSET + primaryPaint.getTextSize(), primaryPaint);
+        }
+
+        private void drawFace(Canvas canvas, Rect bounds) {
             // Time
-            canvas.drawText(hours,      hourBounds.left + ambientOffset.x,    hourBounds.top + ambientOffset.y, primaryPaint);
-            canvas.drawText(minutes, minutesBounds.left + ambientOffset.x, minutesBounds.top + ambientOffset.y, primaryPaint);
-            if (showSeconds && !ambientMode) canvas.drawText(seconds, minutesBounds.right + LINE_OFFSET + ambientOffset.x, minutesBounds.top - LINE_OFFSET + ambientOffset.y, tertiaryPaint);
+            int variant = digitVariant();
+            drawDigits(canvas, faceFrame.hours,   faceFrame.hoursX,   faceFrame.hoursY,   variant);
+            drawDigits(canvas, faceFrame.minutes, faceFrame.minutesX, faceFrame.minutesY, variant);
+            if (faceFrame.seconds != null) {
+                canvas.drawText(faceFrame.seconds, 0, faceFrame.seconds.length, faceFrame.secondsX, faceFrame.secondsY, tertiaryPaint);
+            }
+        }
 
-            // midpointOfScreen line
-            canvas.drawLine(0, midpointOfScreen + ambientOffset.y, bounds.width(), midpointOfScreen + ambientOffset.y, secondaryPaint);
+        private int digitVariant() {
+            return ambientMode ? ambientDigitVariant(ambientLevel) : DigitAtlas.VARIANT_INTERACTIVE;
+        }
 
-            // Logo / date
-            canvas.drawBitmap(!ambientMode ? teradataLogo : teradataLogoAmbient, logoBound.left + ambientOffset.x, logoBound.top + ambientOffset.y, null);
-            if (!ambientMode || showDate) canvas.drawText(date, dateBounds.left + ambientOffset.x, dateBounds.top + ambientOffset.y, secondaryPaint);
+        private int ambientDigitVariant(int level) {
+            switch (level) {
+                case AMBIENT_OUTLINE:  return DigitAtlas.VARIANT_OUTLINE;
+                case AMBIENT_HAIRLINE: return DigitAtlas.VARIANT_HAIRLINE;
+                default:               return lowBitAmbient ? DigitAtlas.VARIANT_LOW_BIT : DigitAtlas.VARIANT_AMBIENT;
+            }
+        }
+
+        // Blits the digits from the atlas, falling back to the font for anything it doesn't hold.
+        private void drawDigits(Canvas canvas, char[] text, float x, float y, int variant) {
+            if (!digitAtlas.drawText(canvas, text, x, y, variant, primaryPaint)) {
+                canvas.drawText(text, 0, text.length, x, y, primaryPaint);
+            }
         }
 
         private void drawUnreadNotificationIcon(Canvas canvas) {
-            if (showNotifications && (numberOfUnreadNotifications > 0)) {
-                canvas.drawCircle(notificationPoint.x, notificationPoint.y, 8, notificationPaint);
+            if (settings.showNotifications && (numberOfUnreadNotifications > 0)) {
+                canvas.drawCircle(layout.notificationX, layout.notificationY, NOTIFICATION_RADIUS, notificationPaint);
                 if (!ambientMode) {
-                    canvas.drawCircle(notificationPoint.x, notificationPoint.y, 4, primaryPaint);
+                    canvas.drawCircle(layout.notificationX, layout.notificationY, 4, primaryPaint);
                 }
             }
         }
 
         private void drawComplications(Canvas canvas, long currentTimeMillis) {
             if (!ambientMode) {
-                ComplicationDrawable complicationDrawable;
-
-                for (int complicationId : complicationIds) {
-                    complicationDrawable = complicationDrawableSparseArray.get(complicationId);
-                    complicationDrawable.draw(canvas, currentTimeMillis);
+                for (int slot = 0; slot < complicationSlots.count(); slot++) {
+                    complicationCaches[slot].draw(canvas, complicationDrawables[slot],
+                            activeComplicationDataCache.get(complicationSlots.id(slot)), currentTimeMillis);
                 }
 
-                if (batteryStatus) {
+                if (settings.batteryStatus) {
                     ComplicationData data = activeComplicationDataCache.get(BATTERY_STATUS_COMPLICATION_ID);
                     if (data != null) {
-                        //canvas.drawRect(0, midpointOfScreen + ambientOffset.y - 1, (int) (midpointOfScreen * 0.02 * data.getValue()), midpointOfScreen + ambientOffset.y + 1, centerLinePaint);
-                        canvas.drawLine(0, midpointOfScreen + ambientOffset.y, (int) (midpointOfScreen * 0.02 * data.getValue()), midpointOfScreen + ambientOffset.y, primaryPaint);
+                        //canvas.drawRect(0, layout.midpoint + faceFrame.offsetY - 1, (int) (layout.midpoint * 0.02 * data.getValue()), layout.midpoint + faceFrame.offsetY + 1, centerLinePaint);
+                        canvas.drawLine(0, layout.midpoint + faceFrame.offsetY, (int) (layout.midpoint * 0.02 * data.getValue()), layout.midpoint + faceFrame.offsetY, primaryPaint);
                     }
                 }
             }
@@ -738,14 +1378,39 @@ public class TeradataWatchService extends CanvasWatchFaceService {
          * Handle updating the time periodically in interactive mode.
          */
         private void handleUpdateTimeMessage() {
-            Log.d(TAG, "Timer fired");
-            invalidate();
+            wakeUps++;
+            if (BuildConfig.TRACING) TraceLog.trace(TraceLog.TIMER_FIRED, wakeUps);
+            requestRedraw();
+            scheduleNextWake();
+        }
+
+        /**
+         * Arms a single {@link #updateTimeHandler} wake-up for the next time the face changes,
+         * replacing any pending one.
+         */
+        private void scheduleNextWake() {
+            updateTimeHandler.removeMessages(MSG_UPDATE_TIME);
             if (shouldTimerBeRunning()) {
-                long interval = TimeUnit.SECONDS.toMillis(showSeconds ? 1 : 60);
                 long timeMs = System.currentTimeMillis();
-                long delayMs = interval - (timeMs % interval);
-                updateTimeHandler.sendEmptyMessageDelayed(MSG_UPDATE_TIME, delayMs);
+                long wakeMs = WakeScheduler.nextWake(timeMs, wallClock.timeZone(), settings.showSeconds, complicationDeadline);
+                updateTimeHandler.sendEmptyMessageDelayed(MSG_UPDATE_TIME, wakeMs - timeMs);
             }
         }
+
+        /*
+         * Reports when a visible complication changes on its own, i.e. its time dependent text
+         * moves on or it becomes active or inactive.
+         */
+        private final WakeScheduler.Deadline complicationDeadline = new WakeScheduler.Deadline() {
+            @Override
+            public boolean changesBetween(long from, long to) {
+                for (int slot = 0; slot < complicationSlots.count(); slot++) {
+                    if (ComplicationCache.changedBetween(activeComplicationDataCache.get(complicationSlots.id(slot)), from, to)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
     }
 }
@@ -0,0 +1,179 @@
+package com.teradata.wearable.watchface;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Text bounds of everything the face writes with one paint: the single and two digit numbers
+ * behind every hour, minute and day of month, and for the date paint the weekday prefixes of the
+ * date. Measured once per typeface, text size and anti-aliasing, so drawing a new hour, minute or
+ * date is a table lookup rather than a {@link Paint#getTextBounds} call.
+ */
+final class TextMetrics implements FaceFrame.DigitWidths {
+
+    private static final int MAX_CACHED_METRICS = 6;
+
+    // Tables for recently used paints; interactive and ambient paints alternate all day.
+    private static final Map<TextMetrics, TextMetrics> CACHE =
+            new LinkedHashMap<TextMetrics, TextMetrics>(MAX_CACHED_METRICS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<TextMetrics, TextMetrics> eldest) {
+                    return size() > MAX_CACHED_METRICS;
+                }
+            };
+
+    private static final int ONE_DIGIT = 10;
+    private static final int TWO_DIGIT = 60;
+    private static final int WEEKDAYS  = 8;  // indexed by Calendar.DAY_OF_WEEK, 0 unused
+
+    // Key
+    private final Typeface typeface;
+    private final float    textSize;
+    private final boolean  antiAlias;
+    private final char     zeroDigit;
+    private final boolean  withDate;
+
+    // left, top, right, bottom per entry
+    private final int[]   oneDigitBounds;
+    private final int[]   twoDigitBounds;
+    private final int[]   weekdayBounds;
+    private final float[] weekdayAdvances;
+
+    /** Returns the digit table for the paint's current typeface, size and anti-aliasing. */
+    static TextMetrics of(Paint paint, char zeroDigit) {
+        return of(paint, zeroDigit, null);
+    }
+
+    /** Returns the digit and date table for the paint, for {@link #dateBounds}. */
+    static TextMetrics of(Paint paint, DateText dateText) {
+        return of(paint, dateText.zeroDigit(), dateText);
+    }
+
+    private static TextMetrics of(Paint paint, char zeroDigit, DateText dateText) {
+        TextMetrics key = new TextMetrics(paint.getTypeface(), paint.getTextSize(), paint.isAntiAlias(), zeroDigit, dateText != null);
+        synchronized (CACHE) {
+            TextMetrics metrics = CACHE.get(key);
+            if (metrics == null) {
+                metrics = new TextMetrics(paint, zeroDigit, dateText);
+                CACHE.put(metrics, metrics);
+            }
+            return metrics;
+        }
+    }
+
+    private TextMetrics(Typeface typeface, float textSize, boolean antiAlias, char zeroDigit, boolean withDate) {
+        this.typeface   = typeface;
+        this.textSize   = textSize;
+        this.antiAlias  = antiAlias;
+        this.zeroDigit  = zeroDigit;
+        this.withDate   = withDate;
+        oneDigitBounds  = twoDigitBounds = weekdayBounds = null;
+        weekdayAdvances = null;
+    }
+
+    // Weekdays are only measured with a date text, as only the date paint draws them.
+    private TextMetrics(Paint paint, char zeroDigit, DateText dateText) {
+        typeface       = paint.getTypeface();
+        textSize       = paint.getTextSize();
+        antiAlias      = paint.isAntiAlias();
+        this.zeroDigit = zeroDigit;
+        withDate       = dateText != null;
+
+        oneDigitBounds  = new int[ONE_DIGIT * 4];
+        twoDigitBounds  = new int[TWO_DIGIT * 4];
+        weekdayBounds   = withDate ? new int[WEEKDAYS * 4] : null;
+        weekdayAdvances = withDate ? new float[WEEKDAYS] : null;
+
+        Rect   bounds = new Rect();
+        char[] digits = new char[2];
+        for (int i = 0; i < ONE_DIGIT; i++) {
+            digits[0] = (char) (zeroDigit + i);
+            paint.getTextBounds(digits, 0, 1, bounds);
+            store(oneDigitBounds, i, bounds);
+        }
+        for (int i = 0; i < TWO_DIGIT; i++) {
+            digits[0] = (char) (zeroDigit + i / 10);
+            digits[1] = (char) (zeroDigit + i % 10);
+            paint.getTextBounds(digits, 0, 2, bounds);
+            store(twoDigitBounds, i, bounds);
+        }
+
+        if (!withDate) {
+            return;
+        }
+
+        // The date is "E d ": the weekday and a space, then the day of month.
+        for (int i = 1; i < WEEKDAYS; i++) {
+            String prefix = dateText.weekday(i) + ' ';
+            paint.getTextBounds(prefix, 0, prefix.length(), bounds);
+            store(weekdayBounds, i, bounds);
+            weekdayAdvances[i] = paint.measureText(prefix);
+        }
+    }
+
+    /** Width of the hour text for the given hour of day, as {@link TimeText#hours} writes it. */
+    @Override
+    public int hoursWidth(int hourOfDay, boolean militaryTime) {
+        if (militaryTime) {
+            return width(twoDigitBounds, hourOfDay);
+        }
+        int hour = hourOfDay % 12 == 0 ? 12 : hourOfDay % 12;
+        return hour < 10 ? width(oneDigitBounds, hour) : width(twoDigitBounds, hour);
+    }
+
+    /** Width of a zero padded minute or second value. */
+    @Override
+    public int twoDigitsWidth(int value) {
+        return width(twoDigitBounds, value);
+    }
+
+    /**
+     * Bounds of the date text as {@link DateText} last built it, relative to its origin. Only for
+     * tables made with {@link #of(Paint, DateText)}.
+     */
+    void dateBounds(DateText dateText, Rect out) {
+        int weekday    = dateText.dayOfWeek();
+        int dayOfMonth = dateText.dayOfMonth();
+        int[] day      = dayOfMonth < 10 ? oneDigitBounds : twoDigitBounds;
+        int   offset   = Math.round(weekdayAdvances[weekday]);
+
+        out.set(Math.min(weekdayBounds[weekday * 4],     day[dayOfMonth * 4] + offset),
+                Math.min(weekdayBounds[weekday * 4 + 1], day[dayOfMonth * 4 + 1]),
+                Math.max(weekdayBounds[weekday * 4 + 2], day[dayOfMonth * 4 + 2] + offset),
+                Math.max(weekdayBounds[weekday * 4 + 3], day[dayOfMonth * 4 + 3]));
+    }
+
+    private static void store(int[] table, int index, Rect bounds) {
+        table[index * 4]     = bounds.left;
+        table[index * 4 + 1] = bounds.top;
+        table[index * 4 + 2] = bounds.right;
+        table[index * 4 + 3] = bounds.bottom;
+    }
+
+    private static int width(int[] table, int index) {
+        return table[index * 4 + 2] - table[index * 4];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TextMetrics)) return false;
+        TextMetrics other = (TextMetrics) o;
+        return typeface == other.typeface && antiAlias == other.antiAlias && zeroDigit == other.zeroDigit
+                && withDate == other.withDate && Float.floatToIntBits(textSize) == Float.floatToIntBits(other.textSize);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = System.identityHashCode(typeface);
+        result = 31 * result + Float.floatToIntBits(textSize);
+        result = 31 * result + (antiAlias ? 1 : 0);
+        result = 31 * result + zeroDigit;
+        result = 31 * result + (withDate ? 1 : 0);
+        return result;
+    }
+}
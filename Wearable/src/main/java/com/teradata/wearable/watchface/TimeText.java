@@ -0,0 +1,53 @@
+package com.teradata.wearable.watchface;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Preset digit tables for the hours, minutes and seconds shown on the watch face. Every value
+ * the face can display is built once up front, so picking the text for a frame is an array
+ * lookup and never allocates.
+ */
+final class TimeText {
+
+    private final char[][] twoDigits   = new char[60][];
+    private final char[][] twelveHours = new char[12][];
+    private final char     zeroDigit;
+
+    TimeText(Locale locale) {
+        char zero = new DecimalFormatSymbols(locale).getZeroDigit();
+        zeroDigit = zero;
+
+        // 00 - 59, also used for 00 - 23 on the 24 hour clock.
+        for (int i = 0; i < twoDigits.length; i++) {
+            twoDigits[i] = new char[] { (char) (zero + i / 10), (char) (zero + i % 10) };
+        }
+
+        // 12, 1 - 11 for the 12 hour clock, indexed by Calendar.HOUR.
+        for (int i = 0; i < twelveHours.length; i++) {
+            int hour = i == 0 ? 12 : i;
+            twelveHours[i] = hour < 10 ? new char[] { (char) (zero + hour) } : twoDigits[hour];
+        }
+    }
+
+    /**
+     * Returns the hour text for the given hour of day (0 - 23). The returned array is shared and
+     * must not be modified.
+     */
+    char[] hours(int hourOfDay, boolean militaryTime) {
+        return militaryTime ? twoDigits[hourOfDay] : twelveHours[hourOfDay % 12];
+    }
+
+    /**
+     * Returns the zero padded text for a minute or second value (0 - 59). The returned array is
+     * shared and must not be modified.
+     */
+    char[] twoDigits(int value) {
+        return twoDigits[value];
+    }
+
+    /** The locale's digit zero; the other digits follow it. */
+    char zeroDigit() {
+        return zeroDigit;
+    }
+}
@@ -0,0 +1,78 @@
+package com.teradata.wearable.watchface;
+
+import java.util.TimeZone;
+
+/**
+ * Works out when the interactive face next has to change, so the engine can arm a single
+ * wake-up for that moment instead of polling.
+ *
+ * <p>The time needs a frame on every local second or minute boundary. Date rollovers and daylight
+ * saving or time zone transitions always fall on a local minute boundary, so they never need a
+ * wake-up of their own; the boundary is worked out with the offset in effect at that moment, so
+ * a transition in between does not skew it. Complications showing time dependent text (a
+ * countdown, say) can change sooner, which {@link Deadline} reports.
+ */
+final class WakeScheduler {
+
+    static final long SECOND_MILLIS = 1000;
+    static final long MINUTE_MILLIS = 60 * SECOND_MILLIS;
+
+    /** Something on the face that may change on its own as time passes. */
+    interface Deadline {
+
+        /** Whether what is shown at {@code from} differs from what is shown at {@code to}. */
+        boolean changesBetween(long from, long to);
+    }
+
+    private WakeScheduler() {
+    }
+
+    /**
+     * Returns the first time after {@code now} at which the face looks different.
+     *
+     * @param deadline probed for changes before the next tick, may be null.
+     */
+    static long nextWake(long now, TimeZone timeZone, boolean showSeconds, Deadline deadline) {
+        long next = nextBoundary(now, timeZone, showSeconds ? SECOND_MILLIS : MINUTE_MILLIS);
+        if (deadline != null && !showSeconds && deadline.changesBetween(now, next - 1)) {
+            next = earliestChange(now, next, deadline);
+        }
+        return next;
+    }
+
+    /** The first local multiple of {@code unit} after {@code now}; unit is a second or minute. */
+    static long nextBoundary(long now, TimeZone timeZone, long unit) {
+        long next = boundaryAfter(now, timeZone.getOffset(now), unit);
+
+        // Crossed a transition; line up with the offset on the far side instead.
+        int offset = timeZone.getOffset(next);
+        if (offset != timeZone.getOffset(now)) {
+            next = boundaryAfter(now, offset, unit);
+        }
+        return next;
+    }
+
+    private static long boundaryAfter(long now, int offset, long unit) {
+        long local = now + offset;
+        long floor = local - (((local % unit) + unit) % unit);
+        return floor + unit - offset;
+    }
+
+    /*
+     * Binary search over whole seconds in (now, next) for the first time the deadline reports a
+     * change. Time dependent text has at most one second of resolution.
+     */
+    private static long earliestChange(long now, long next, Deadline deadline) {
+        long low  = now / SECOND_MILLIS + 1;
+        long high = (next - 1) / SECOND_MILLIS;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (deadline.changesBetween(now, middle * SECOND_MILLIS)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return Math.min(next, Math.max(now + 1, low * SECOND_MILLIS));
+    }
+}
@@ -0,0 +1,163 @@
+package com.teradata.wearable.watchface;
+
+import java.util.TimeZone;
+
+/**
+ * Breaks epoch milliseconds into the local fields the face shows, without {@link java.util.Calendar}.
+ * The zone's offset is looked up once and reused until the zone's next transition, and the date
+ * is only worked out again when the local day changes, so a typical {@link #set(long)} is a few
+ * divisions. Has no Android dependencies so it can be exercised on a plain JVM.
+ *
+ * <p>Fields follow {@code Calendar}: {@link #dayOfWeek} is {@code Calendar.SUNDAY} (1) to
+ * {@code Calendar.SATURDAY} (7), {@link #month} is 0 based, {@link #dayOfYear} is 1 based.
+ */
+final class WallClock {
+
+    static final long SECOND_MILLIS = 1000;
+    static final long MINUTE_MILLIS = 60 * SECOND_MILLIS;
+    static final long HOUR_MILLIS   = 60 * MINUTE_MILLIS;
+    static final long DAY_MILLIS    = 24 * HOUR_MILLIS;
+
+    // How far ahead transitions are looked for, and the step used to look.
+    private static final long HORIZON_MILLIS = 28 * DAY_MILLIS;
+    private static final long PROBE_MILLIS   = DAY_MILLIS;
+
+    // Days before each month, in a normal and a leap year.
+    private static final int[] DAYS_BEFORE_MONTH = {
+            0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334,
+            0, 31, 60, 91, 121, 152, 182, 213, 244, 274, 305, 335
+    };
+
+    private TimeZone timeZone;
+
+    // The offset and the period it is known to hold for, [validFrom, validUntil).
+    private int  offset;
+    private long validFrom;
+    private long validUntil;
+    private int  offsetLookups;
+
+    private long localDay = Long.MIN_VALUE;
+
+    int hour;
+    int minute;
+    int second;
+    int year;
+    int month;
+    int dayOfMonth;
+    int dayOfYear;
+    int dayOfWeek;
+
+    WallClock(TimeZone timeZone) {
+        setTimeZone(timeZone);
+    }
+
+    /**
+     * Switches zone and forgets the cached offset. Also used when the wall clock is set, as the
+     * cached period may no longer contain the current time.
+     */
+    void setTimeZone(TimeZone timeZone) {
+        this.timeZone = timeZone;
+        validFrom  = Long.MAX_VALUE;
+        validUntil = Long.MIN_VALUE;
+        localDay   = Long.MIN_VALUE;
+    }
+
+    TimeZone timeZone() {
+        return timeZone;
+    }
+
+    /** How often the zone had to be asked for an offset, for dumpsys. */
+    int offsetLookups() {
+        return offsetLookups;
+    }
+
+    /** Sets the fields to the local time at {@code millis}. */
+    void set(long millis) {
+        if (millis < validFrom || millis >= validUntil) {
+            lookUpOffset(millis);
+        }
+
+        long local = millis + offset;
+        long day   = floorDiv(local, DAY_MILLIS);
+        int  time  = (int) (local - day * DAY_MILLIS);
+        hour   = time / (int) HOUR_MILLIS;
+        minute = time / (int) MINUTE_MILLIS % 60;
+        second = time / (int) SECOND_MILLIS % 60;
+
+        if (day != localDay) {
+            localDay = day;
+            setDate(day);
+        }
+    }
+
+    /** The key the render state uses for a day, {@code year * 1000 + dayOfYear}. */
+    int dayKey() {
+        return year * 1000 + dayOfYear;
+    }
+
+    /*
+     * Takes the offset at millis and finds how long it holds: probes ahead a day at a time up
+     * to the horizon, then narrows the first change down to the millisecond.
+     */
+    private void lookUpOffset(long millis) {
+        offsetLookups++;
+        offset    = timeZone.getOffset(millis);
+        validFrom = millis;
+
+        long probe = millis;
+        long limit = millis + HORIZON_MILLIS;
+        while (probe < limit) {
+            long next = Math.min(probe + PROBE_MILLIS, limit);
+            if (timeZone.getOffset(next) != offset) {
+                validUntil = firstChange(probe, next);
+                return;
+            }
+            probe = next;
+        }
+        validUntil = limit;
+    }
+
+    // The first time in (from, to] with a different offset, given that to has one.
+    private long firstChange(long from, long to) {
+        while (to - from > 1) {
+            long mid = from + (to - from) / 2;
+            if (timeZone.getOffset(mid) != offset) {
+                to = mid;
+            } else {
+                from = mid;
+            }
+        }
+        return to;
+    }
+
+    // Civil date from days since 1970-01-01, after Howard Hinnant's days_from_civil inverse.
+    private void setDate(long days) {
+        long z    = days + 719468;
+        long era  = floorDiv(z, 146097);
+        int  doe  = (int) (z - era * 146097);
+        int  yoe  = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int  doy  = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int  mp   = (5 * doy + 2) / 153;
+        int  day  = doy - (153 * mp + 2) / 5 + 1;
+        int  mon  = mp < 10 ? mp + 3 : mp - 9;
+
+        year       = (int) (yoe + era * 400) + (mon <= 2 ? 1 : 0);
+        month      = mon - 1;
+        dayOfMonth = day;
+
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        dayOfYear = DAYS_BEFORE_MONTH[(leap ? 12 : 0) + month] + day;
+
+        // 1970-01-01 was a Thursday.
+        dayOfWeek = (int) floorMod(days + 4, 7) + 1;
+    }
+
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        return (x % y != 0 && (x ^ y) < 0) ? q - 1 : q;
+    }
+
+    private static long floorMod(long x, long y) {
+        return x - floorDiv(x, y) * y;
+    }
+}
@@ -0,0 +1,147 @@
+package com.teradata.wearable.watchface;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable geometry of the watch face for one surface size, text size and set of font metrics.
+ * Everything is worked out once when the surface or insets change; drawing only reads the
+ * precomputed values. Has no Android dependencies so it can be exercised on a plain JVM.
+ */
+final class WatchFaceLayout {
+
+    static final int LINE_OFFSET  = 9;
+    static final int STROKE_WIDTH = 1;
+
+    private static final int MAX_CACHED_LAYOUTS = 4;
+
+    // Recently used layouts, so switching between the same few configurations costs nothing.
+    private static final Map<WatchFaceLayout, WatchFaceLayout> CACHE =
+            new LinkedHashMap<WatchFaceLayout, WatchFaceLayout>(MAX_CACHED_LAYOUTS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<WatchFaceLayout, WatchFaceLayout> eldest) {
+                    return size() > MAX_CACHED_LAYOUTS;
+                }
+            };
+
+    // Inputs
+    final int     width;
+    final int     height;
+    final boolean isRound;
+    final float   textSize;
+    final int     digitWidth;
+    final int     digitHeight;
+    final int     logoWidth;
+    final int     logoHeight;
+
+    // Outputs
+    final int midpoint;
+    final int logoLeft;
+    final int logoTop;
+    final int notificationX;
+    final int notificationY;
+    final int hoursBaseline;
+    final int minutesBaseline;
+    final int ambientSizeX;
+    final int ambientSizeY;
+
+    /**
+     * Returns the layout for the given inputs, reusing a previously computed one if possible.
+     *
+     * @param digitWidth  width of the text bounds of "88" in the digit paint.
+     * @param digitHeight height of the text bounds of "88" in the digit paint.
+     */
+    static WatchFaceLayout of(int width, int height, boolean isRound, float textSize,
+                              int digitWidth, int digitHeight, int logoWidth, int logoHeight) {
+        WatchFaceLayout key = new WatchFaceLayout(width, height, isRound, textSize, digitWidth, digitHeight, logoWidth, logoHeight, false);
+        synchronized (CACHE) {
+            WatchFaceLayout layout = CACHE.get(key);
+            if (layout == null) {
+                layout = compute(width, height, isRound, textSize, digitWidth, digitHeight, logoWidth, logoHeight);
+                CACHE.put(layout, layout);
+            }
+            return layout;
+        }
+    }
+
+    /** Computes a new layout without consulting or filling the cache. */
+    static WatchFaceLayout compute(int width, int height, boolean isRound, float textSize,
+                                   int digitWidth, int digitHeight, int logoWidth, int logoHeight) {
+        return new WatchFaceLayout(width, height, isRound, textSize, digitWidth, digitHeight, logoWidth, logoHeight, true);
+    }
+
+    private WatchFaceLayout(int width, int height, boolean isRound, float textSize,
+                            int digitWidth, int digitHeight, int logoWidth, int logoHeight, boolean compute) {
+        this.width       = width;
+        this.height      = height;
+        this.isRound     = isRound;
+        this.textSize    = textSize;
+        this.digitWidth  = digitWidth;
+        this.digitHeight = digitHeight;
+        this.logoWidth   = logoWidth;
+        this.logoHeight  = logoHeight;
+
+        if (!compute) {
+            midpoint = 0;
+            logoLeft = logoTop = notificationX = notificationY = hoursBaseline = minutesBaseline = 0;
+            ambientSizeX = ambientSizeY = 0;
+            return;
+        }
+
+        midpoint = height / 2;
+
+        logoLeft = width - logoWidth - LINE_OFFSET;
+        logoTop  = midpoint - LINE_OFFSET - logoHeight;
+
+        notificationX = width / 2;
+        notificationY = height - 20;
+
+        hoursBaseline   = midpoint - (STROKE_WIDTH + LINE_OFFSET);
+        minutesBaseline = midpoint + (STROKE_WIDTH + LINE_OFFSET) + digitHeight;
+
+        // Largest drift that keeps the digits on screen.
+        int shiftWidth  = midpoint * 2 - LINE_OFFSET - (midpoint - digitWidth / 2);
+        int shiftHeight = 2 * (digitHeight + LINE_OFFSET);
+        ambientSizeX = (int) Math.sqrt(Math.pow(midpoint, 2) - Math.pow(shiftHeight / 2, 2)) - shiftWidth  / 2;
+        ambientSizeY = (int) Math.sqrt(Math.pow(midpoint, 2) - Math.pow(shiftWidth  / 2, 2)) - shiftHeight / 2;
+    }
+
+    /** Left edge that horizontally centres text of the given width. */
+    int centeredLeft(int textWidth) {
+        return (width - textWidth) / 2;
+    }
+
+    /** Left edge of the date, centred under the logo. */
+    int dateLeft(int dateWidth) {
+        return logoLeft + (logoWidth - dateWidth) / 2;
+    }
+
+    /** Baseline of the date, just below the centre line. */
+    int dateBaseline(int dateHeight) {
+        return midpoint + dateHeight + LINE_OFFSET;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WatchFaceLayout)) return false;
+        WatchFaceLayout other = (WatchFaceLayout) o;
+        return width == other.width && height == other.height && isRound == other.isRound
+                && Float.floatToIntBits(textSize) == Float.floatToIntBits(other.textSize)
+                && digitWidth == other.digitWidth && digitHeight == other.digitHeight
+                && logoWidth == other.logoWidth && logoHeight == other.logoHeight;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = width;
+        result = 31 * result + height;
+        result = 31 * result + (isRound ? 1 : 0);
+        result = 31 * result + Float.floatToIntBits(textSize);
+        result = 31 * result + digitWidth;
+        result = 31 * result + digitHeight;
+        result = 31 * result + logoWidth;
+        result = 31 * result + logoHeight;
+        return result;
+    }
+}
@@ -0,0 +1,150 @@
+package com.teradata.wearable.watchface;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.v4.content.res.ResourcesCompat;
+import android.util.Log;
+
+import com.teradata.wearable.R;
+import com.teradata.wearable.model.SharedExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide pool of the resources every engine draws with: the font. The logo artwork is not
+ * pooled; each engine decodes it at its surface's size through {@link LogoBitmaps}.
+ * The font is loaded once on a background thread and shared by reference count, so preview engines
+ * and the engine the system creates after a settings change do not decode them again. A failed
+ * load is retried a few times before the waiting callbacks are told; the next acquire then starts
+ * over.
+ *
+ * All methods must be called on the main thread; callbacks are delivered there too.
+ */
+final class WatchFaceResources {
+
+    /** Told when the pool has finished loading, or given up. */
+    interface Callback {
+        void onResourcesReady(WatchFaceResources resources);
+
+        void onResourcesFailed(Throwable error);
+    }
+
+    private static final String TAG = "WatchFaceResources";
+
+    private static final int  LOAD_ATTEMPTS  = 3;
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private static WatchFaceResources   loaded;
+    private static boolean              loading;
+    private static int                  references;
+    private static final List<Callback> waiting = new ArrayList<>();
+
+    final Typeface typeface;
+
+    /** How long loading took on the background thread. */
+    final long loadMillis;
+
+    private WatchFaceResources(Context context) {
+        long start = SystemClock.elapsedRealtime();
+        typeface   = ResourcesCompat.getFont(context, R.font.afterheadline);
+        loadMillis = SystemClock.elapsedRealtime() - start;
+    }
+
+    /**
+     * Takes a reference on the pool. Returns it straight away if it is loaded; otherwise returns
+     * null and calls {@code callback} once it is. Every call must be paired with
+     * {@link #release(Callback)}.
+     */
+    static WatchFaceResources acquire(Context context, Callback callback) {
+        references++;
+        if (loaded != null) {
+            return loaded;
+        }
+
+        waiting.add(callback);
+        if (!loading) {
+            loading = true;
+            load(context.getApplicationContext(), 1);
+        }
+        return null;
+    }
+
+    private static void load(final Context context, final int attempt) {
+        SharedExecutor.get().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final WatchFaceResources resources = new WatchFaceResources(context);
+                    MAIN.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            onLoaded(resources);
+                        }
+                    });
+                } catch (RuntimeException | OutOfMemoryError e) {
+                    final Throwable error = e;
+                    MAIN.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            onFailed(context, attempt, error);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /** Drops a reference; the pool is let go once nothing uses it. */
+    static void release(Callback callback) {
+        waiting.remove(callback);
+        if (--references == 0) {
+            loaded = null;
+        }
+    }
+
+    private static void onLoaded(WatchFaceResources resources) {
+        loading = false;
+        if (references == 0) {
+            // Everyone left while loading.
+            return;
+        }
+
+        loaded = resources;
+        Callback[] callbacks = waiting.toArray(new Callback[waiting.size()]);
+        waiting.clear();
+        for (Callback callback : callbacks) {
+            callback.onResourcesReady(resources);
+        }
+    }
+
+    private static void onFailed(final Context context, final int attempt, Throwable error) {
+        if (references == 0) {
+            loading = false;
+            return;
+        }
+        if (attempt < LOAD_ATTEMPTS) {
+            Log.w(TAG, "Loading failed, retrying: " + error);
+            MAIN.postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    load(context, attempt + 1);
+                }
+            }, RETRY_DELAY_MS * attempt);
+            return;
+        }
+
+        Log.e(TAG, "Unable to load the watch face resources", error);
+        loading = false;
+        Callback[] callbacks = waiting.toArray(new Callback[waiting.size()]);
+        waiting.clear();
+        for (Callback callback : callbacks) {
+            callback.onResourcesFailed(error);
+        }
+    }
+}
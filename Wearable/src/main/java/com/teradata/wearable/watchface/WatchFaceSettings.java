@@ -0,0 +1,42 @@
+package com.teradata.wearable.watchface;
+
+import com.teradata.wearable.model.SettingsStore;
+
+/**
+ * Immutable snapshot of the user's customization settings, made from the {@link SettingsStore}
+ * flags whenever its change sequence moves on.
+ */
+final class WatchFaceSettings {
+
+    static final WatchFaceSettings DEFAULTS = new WatchFaceSettings(SettingsStore.DEFAULT_FLAGS);
+
+    final boolean militaryTime;
+    final boolean showDate;
+    final boolean ambientDrift;
+    final boolean showSeconds;
+    final boolean batteryStatus;
+    final boolean showNotifications;
+
+    // The settings as SettingsStore bits.
+    final int flags;
+
+    private WatchFaceSettings(int flags) {
+        this.flags        = flags & SettingsStore.SETTINGS_MASK;
+        militaryTime      = (flags & SettingsStore.MILITARY_TIME)      != 0;
+        showDate          = (flags & SettingsStore.SHOW_DATE)          != 0;
+        ambientDrift      = (flags & SettingsStore.AMBIENT_DRIFT)      != 0;
+        showSeconds       = (flags & SettingsStore.SHOW_SECONDS)       != 0;
+        batteryStatus     = (flags & SettingsStore.BATTERY_STATUS)     != 0;
+        showNotifications = (flags & SettingsStore.SHOW_NOTIFICATIONS) != 0;
+    }
+
+    /** Returns the settings for the given flags; this snapshot if they are unchanged. */
+    WatchFaceSettings with(int updated) {
+        return (updated & SettingsStore.SETTINGS_MASK) == flags ? this : new WatchFaceSettings(updated);
+    }
+
+    /** The SettingsStore bits that differ between the two snapshots. */
+    int changedFrom(WatchFaceSettings previous) {
+        return flags ^ previous.flags;
+    }
+}
@@ -0,0 +1,252 @@
+package com.teradata.wearable.watchface;
+
+import android.content.Context;
+import android.graphics.drawable.Icon;
+import android.support.wearable.complications.ComplicationData;
+import android.support.wearable.complications.ComplicationText;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Round trips every complication type the face shows through the snapshot codec, and checks the
+ * size limits and that snapshots from another codec, app or platform build are rejected.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27, manifest = Config.NONE)
+public class ComplicationSnapshotTest {
+
+    private static final int    VERSION_CODE = 7;
+    private static final String FINGERPRINT  = "teradata/watch/test:8.1.0/OPM1/4611349:user/release-keys";
+
+    private static final int SLOT_ID = 3;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+    }
+
+    @Test
+    public void roundTripsShortText() throws IOException {
+        ComplicationData data = new ComplicationData.Builder(ComplicationData.TYPE_SHORT_TEXT)
+                .setShortText(ComplicationText.plainText("1234"))
+                .setShortTitle(ComplicationText.plainText("steps"))
+                .setIcon(icon("walk", 0))
+                .setBurnInProtectionIcon(icon("walk_outline", 0))
+                .build();
+
+        ComplicationData decoded = roundTrip(data);
+        assertEquals(ComplicationData.TYPE_SHORT_TEXT, decoded.getType());
+        assertText("1234", decoded.getShortText());
+        assertText("steps", decoded.getShortTitle());
+        assertNotNull(decoded.getIcon());
+        assertNotNull(decoded.getBurnInProtectionIcon());
+        assertTrue(ComplicationSnapshot.sameContent(data, decoded));
+    }
+
+    @Test
+    public void roundTripsLongText() throws IOException {
+        ComplicationData data = new ComplicationData.Builder(ComplicationData.TYPE_LONG_TEXT)
+                .setLongText(ComplicationText.plainText("Stand-up in meeting room 4"))
+                .setLongTitle(ComplicationText.plainText("10:30"))
+                .setSmallImage(icon("calendar", 0))
+                .setImageStyle(ComplicationData.IMAGE_STYLE_ICON)
+                .build();
+
+        ComplicationData decoded = roundTrip(data);
+        assertEquals(ComplicationData.TYPE_LONG_TEXT, decoded.getType());
+        assertText("Stand-up in meeting room 4", decoded.getLongText());
+        assertText("10:30", decoded.getLongTitle());
+        assertNotNull(decoded.getSmallImage());
+        assertEquals(ComplicationData.IMAGE_STYLE_ICON, decoded.getImageStyle());
+        assertTrue(ComplicationSnapshot.sameContent(data, decoded));
+    }
+
+    @Test
+    public void roundTripsRangedValue() throws IOException {
+        ComplicationData data = new ComplicationData.Builder(ComplicationData.TYPE_RANGED_VALUE)
+                .setValue(42f)
+                .setMinValue(0f)
+                .setMaxValue(100f)
+                .setShortText(ComplicationText.plainText("42%"))
+                .build();
+
+        ComplicationData decoded = roundTrip(data);
+        assertEquals(ComplicationData.TYPE_RANGED_VALUE, decoded.getType());
+        assertEquals(42f, decoded.getValue(), 0f);
+        assertEquals(0f, decoded.getMinValue(), 0f);
+        assertEquals(100f, decoded.getMaxValue(), 0f);
+        assertText("42%", decoded.getShortText());
+        assertTrue(ComplicationSnapshot.sameContent(data, decoded));
+    }
+
+    @Test
+    public void roundTripsIcon() throws IOException {
+        ComplicationData data = new ComplicationData.Builder(ComplicationData.TYPE_ICON)
+                .setIcon(icon("battery", 0))
+                .setBurnInProtectionIcon(icon("battery_outline", 0))
+                .build();
+
+        ComplicationData decoded = roundTrip(data);
+        assertEquals(ComplicationData.TYPE_ICON, decoded.getType());
+        assertNotNull(decoded.getIcon());
+        assertNotNull(decoded.getBurnInProtectionIcon());
+        assertTrue(ComplicationSnapshot.sameContent(data, decoded));
+    }
+
+    @Test
+    public void roundTripsSmallImage() throws IOException {
+        ComplicationData data = new ComplicationData.Builder(ComplicationData.TYPE_SMALL_IMAGE)
+                .setSmallImage(icon("contact", 0))
+                .setImageStyle(ComplicationData.IMAGE_STYLE_PHOTO)
+                .build();
+
+        ComplicationData decoded = roundTrip(data);
+        assertEquals(ComplicationData.TYPE_SMALL_IMAGE, decoded.getType());
+        assertNotNull(decoded.getSmallImage());
+        assertEquals(ComplicationData.IMAGE_STYLE_PHOTO, decoded.getImageStyle());
+        assertTrue(ComplicationSnapshot.sameContent(data, decoded));
+    }
+
+    @Test
+    public void roundTripsNoData() throws IOException {
+        ComplicationData data = new ComplicationData.Builder(ComplicationData.TYPE_NO_DATA).build();
+
+        ComplicationData decoded = roundTrip(data);
+        assertEquals(ComplicationData.TYPE_NO_DATA, decoded.getType());
+    }
+
+    @Test
+    public void roundTripsSurface() throws IOException {
+        ComplicationSnapshot snapshot = new ComplicationSnapshot();
+        snapshot.surfaceWidth  = 390;
+        snapshot.surfaceHeight = 360;
+        snapshot.isRound       = true;
+
+        ComplicationSnapshot decoded = decode(snapshot.encode(VERSION_CODE, FINGERPRINT));
+        assertEquals(390, decoded.surfaceWidth);
+        assertEquals(360, decoded.surfaceHeight);
+        assertTrue(decoded.isRound);
+        assertEquals(0, decoded.data.size());
+    }
+
+    @Test
+    public void dropsOversizedOptionalIcon() throws IOException {
+        ComplicationData data = new ComplicationData.Builder(ComplicationData.TYPE_SHORT_TEXT)
+                .setShortText(ComplicationText.plainText("5"))
+                .setIcon(icon("huge", ComplicationSnapshot.MAX_ICON_BYTES * 2))
+                .build();
+
+        ComplicationData decoded = roundTrip(data);
+        assertText("5", decoded.getShortText());
+        assertNull(decoded.getIcon());
+    }
+
+    @Test
+    public void leavesOutSlotWithOversizedRequiredIcon() throws IOException {
+        ComplicationSnapshot snapshot = new ComplicationSnapshot();
+        snapshot.data.put(SLOT_ID, new ComplicationData.Builder(ComplicationData.TYPE_ICON)
+                .setIcon(icon("huge", ComplicationSnapshot.MAX_ICON_BYTES * 2))
+                .build());
+
+        assertEquals(0, decode(snapshot.encode(VERSION_CODE, FINGERPRINT)).data.size());
+    }
+
+    @Test
+    public void staysWithinMaxBytes() throws IOException {
+        ComplicationSnapshot snapshot = new ComplicationSnapshot();
+        int slots = 20;
+        for (int id = 0; id < slots; id++) {
+            snapshot.data.put(id, new ComplicationData.Builder(ComplicationData.TYPE_ICON)
+                    .setIcon(icon("icon" + id, ComplicationSnapshot.MAX_ICON_BYTES / 4))
+                    .build());
+        }
+
+        byte[] bytes = snapshot.encode(VERSION_CODE, FINGERPRINT);
+        assertTrue(bytes.length <= ComplicationSnapshot.MAX_BYTES);
+
+        int kept = decode(bytes).data.size();
+        assertTrue("kept " + kept, kept > 0 && kept < slots);
+    }
+
+    @Test
+    public void rejectsBadMagic() throws IOException {
+        byte[] bytes = encodedShortText();
+        bytes[0] ^= 0xff;
+        assertNull(ComplicationSnapshot.decode(bytes, VERSION_CODE, FINGERPRINT));
+    }
+
+    @Test
+    public void rejectsOtherCodecVersion() throws IOException {
+        byte[] bytes = encodedShortText();
+        bytes[7] ^= 0x01;
+        assertNull(ComplicationSnapshot.decode(bytes, VERSION_CODE, FINGERPRINT));
+    }
+
+    @Test
+    public void rejectsOtherAppVersion() throws IOException {
+        assertNull(ComplicationSnapshot.decode(encodedShortText(), VERSION_CODE + 1, FINGERPRINT));
+    }
+
+    @Test
+    public void rejectsOtherPlatformBuild() throws IOException {
+        assertNull(ComplicationSnapshot.decode(encodedShortText(), VERSION_CODE, FINGERPRINT + ".1"));
+    }
+
+    @Test
+    public void rejectsTruncatedSnapshot() throws IOException {
+        byte[] bytes = encodedShortText();
+        assertNull(ComplicationSnapshot.decode(Arrays.copyOf(bytes, bytes.length - 3), VERSION_CODE, FINGERPRINT));
+    }
+
+    private byte[] encodedShortText() throws IOException {
+        ComplicationSnapshot snapshot = new ComplicationSnapshot();
+        snapshot.data.put(SLOT_ID, new ComplicationData.Builder(ComplicationData.TYPE_SHORT_TEXT)
+                .setShortText(ComplicationText.plainText("12"))
+                .build());
+        return snapshot.encode(VERSION_CODE, FINGERPRINT);
+    }
+
+    private static ComplicationData roundTrip(ComplicationData data) throws IOException {
+        ComplicationSnapshot snapshot = new ComplicationSnapshot();
+        snapshot.data.put(SLOT_ID, data);
+
+        ComplicationSnapshot decoded = decode(snapshot.encode(VERSION_CODE, FINGERPRINT));
+        assertEquals(1, decoded.data.size());
+        return decoded.data.get(SLOT_ID);
+    }
+
+    private static ComplicationSnapshot decode(byte[] bytes) {
+        ComplicationSnapshot decoded = ComplicationSnapshot.decode(bytes, VERSION_CODE, FINGERPRINT);
+        assertNotNull(decoded);
+        return decoded;
+    }
+
+    // A content URI icon, padded to flatten to at least the given number of bytes.
+    private static Icon icon(String name, int padding) {
+        StringBuilder uri = new StringBuilder("content://com.teradata.wearable.test/").append(name);
+        while (uri.length() < padding) {
+            uri.append('x');
+        }
+        return Icon.createWithContentUri(uri.toString());
+    }
+
+    private void assertText(String expected, ComplicationText text) {
+        assertNotNull(text);
+        assertEquals(expected, text.getText(context, 0).toString());
+    }
+}
@@ -0,0 +1,87 @@
+package com.teradata.wearable.watchface;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs the per-frame work of the face on a plain JVM and checks that, once warmed up, frames
+ * allocate nothing: the clock, the date text and the placement of the time.
+ */
+public class FrameAllocationTest {
+
+    // 2017-07-14 02:40 UTC, a day with no transition in the zone either side of it.
+    private static final long   START = 1500000000000L;
+    private static final String ZONE  = "Europe/London";
+
+    private com.sun.management.ThreadMXBean threads;
+
+    private WallClock wallClock;
+    private DateText  dateText;
+    private FaceFrame faceFrame;
+
+    @Before
+    public void setUp() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        WatchFaceLayout layout = WatchFaceLayout.compute(360, 360, true, 61f, 72, 45, 120, 28);
+
+        wallClock = new WallClock(TimeZone.getTimeZone(ZONE));
+        dateText  = new DateText(Locale.US);
+        faceFrame = new FaceFrame(new TimeText(Locale.US));
+        faceFrame.setLayout(layout, new AmbientDriftPath(layout.ambientSizeX, layout.ambientSizeY));
+        faceFrame.setWidths(new FaceFrame.DigitWidths() {
+            @Override
+            public int hoursWidth(int hourOfDay, boolean militaryTime) {
+                return militaryTime || hourOfDay % 12 >= 10 || hourOfDay % 12 == 0 ? 72 : 36;
+            }
+
+            @Override
+            public int twoDigitsWidth(int value) {
+                return 72;
+            }
+        });
+    }
+
+    @Test
+    public void interactiveFramesDoNotAllocate() {
+        // Every second of a day, through every hour, minute and the change of date.
+        frames(START, WallClock.SECOND_MILLIS, 86400, false);
+        assertEquals(0, allocatedBy(START + WallClock.DAY_MILLIS, WallClock.SECOND_MILLIS, 86400, false));
+    }
+
+    @Test
+    public void ambientFramesDoNotAllocate() {
+        frames(START, WallClock.MINUTE_MILLIS, 1440, true);
+        assertEquals(0, allocatedBy(START + WallClock.DAY_MILLIS, WallClock.MINUTE_MILLIS, 1440, true));
+    }
+
+    private long allocatedBy(long from, long interval, int count, boolean ambientMode) {
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        frames(from, interval, count, ambientMode);
+        long after  = threads.getThreadAllocatedBytes(thread);
+
+        // Asking for the count may itself allocate; take that off.
+        long overhead = threads.getThreadAllocatedBytes(thread) - after;
+        return Math.max(0, after - before - overhead);
+    }
+
+    private void frames(long from, long interval, int count, boolean ambientMode) {
+        long now = from;
+        for (int i = 0; i < count; i++, now += interval) {
+            wallClock.set(now);
+            dateText.update(wallClock);
+            faceFrame.update(wallClock, now, ambientMode, true, i % 2 == 0, true);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.teradata.wearable.watchface;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the wall clock against {@link Calendar} in every zone the JVM knows, walking forward
+ * the way the face does and jumping about the way a clock change does, so a mistake in the
+ * cached offset shows up around transitions.
+ */
+public class WallClockTest {
+
+    // 1970-01-01 to 2100-01-01, where both calendars agree on the Gregorian rules.
+    private static final long FROM  = 0L;
+    private static final long UNTIL = 4102444800000L;
+
+    private static final int STEPS_PER_ZONE = 4000;
+
+    @Test
+    public void matchesCalendarInEveryZone() {
+        Random random = new Random(20180206);
+        for (String id : TimeZone.getAvailableIDs()) {
+            TimeZone  zone     = TimeZone.getTimeZone(id);
+            WallClock clock    = new WallClock(zone);
+            Calendar  calendar = new GregorianCalendar(zone);
+
+            long millis = FROM + (long) (random.nextDouble() * (UNTIL - FROM));
+            for (int step = 0; step < STEPS_PER_ZONE; step++) {
+                if (random.nextInt(100) == 0) {
+                    // The wall clock was set: anywhere in the range.
+                    millis = FROM + (long) (random.nextDouble() * (UNTIL - FROM));
+                } else {
+                    // Ticks from a second to a few days, as interactive and ambient frames come.
+                    millis += 1 + (long) (random.nextDouble() * random.nextDouble() * 3 * WallClock.DAY_MILLIS);
+                }
+                assertSame(id, clock, calendar, millis);
+            }
+        }
+    }
+
+    @Test
+    public void matchesCalendarAcrossTransitions() {
+        for (String id : TimeZone.getAvailableIDs()) {
+            TimeZone  zone     = TimeZone.getTimeZone(id);
+            WallClock clock    = new WallClock(zone);
+            Calendar  calendar = new GregorianCalendar(zone);
+
+            // Every 17 minutes through a year, which passes each of its transitions.
+            long millis = 1514764800000L; // 2018-01-01 UTC
+            for (int minute = 0; minute < 366 * 24 * 60; minute += 17) {
+                assertSame(id, clock, calendar, millis + minute * WallClock.MINUTE_MILLIS);
+            }
+        }
+    }
+
+    @Test
+    public void matchesCalendarOverHalfHourTransition() {
+        // Lord Howe Island moves its clocks by half an hour, at 02:00 local in April and October.
+        TimeZone  zone     = TimeZone.getTimeZone("Australia/Lord_Howe");
+        WallClock clock    = new WallClock(zone);
+        Calendar  calendar = new GregorianCalendar(zone);
+
+        long[] transitions = { 1522512000000L, 1538841600000L }; // 2018-04-01, 2018-10-07 UTC
+        for (long transition : transitions) {
+            for (long millis = transition - WallClock.DAY_MILLIS; millis < transition + WallClock.DAY_MILLIS; millis += WallClock.SECOND_MILLIS) {
+                assertSame("Australia/Lord_Howe", clock, calendar, millis);
+            }
+        }
+    }
+
+    @Test
+    public void followsZoneChange() {
+        WallClock clock    = new WallClock(TimeZone.getTimeZone("America/New_York"));
+        long      millis   = 1500000000000L;
+        clock.set(millis);
+
+        TimeZone zone = TimeZone.getTimeZone("Asia/Kolkata");
+        clock.setTimeZone(zone);
+        assertSame("Asia/Kolkata", clock, new GregorianCalendar(zone), millis);
+    }
+
+    private static void assertSame(String zone, WallClock clock, Calendar calendar, long millis) {
+        clock.set(millis);
+        calendar.setTimeInMillis(millis);
+
+        String at = zone + " at " + millis;
+        assertEquals(at, calendar.get(Calendar.HOUR_OF_DAY),  clock.hour);
+        assertEquals(at, calendar.get(Calendar.MINUTE),       clock.minute);
+        assertEquals(at, calendar.get(Calendar.SECOND),       clock.second);
+        assertEquals(at, calendar.get(Calendar.YEAR),         clock.year);
+        assertEquals(at, calendar.get(Calendar.MONTH),        clock.month);
+        assertEquals(at, calendar.get(Calendar.DAY_OF_MONTH), clock.dayOfMonth);
+        assertEquals(at, calendar.get(Calendar.DAY_OF_YEAR),  clock.dayOfYear);
+        assertEquals(at, calendar.get(Calendar.DAY_OF_WEEK),  clock.dayOfWeek);
+    }
+}
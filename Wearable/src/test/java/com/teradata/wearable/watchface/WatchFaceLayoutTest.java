@@ -0,0 +1,91 @@
+package com.teradata.wearable.watchface;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the face geometry on round and square surfaces and the reuse of computed layouts.
+ */
+public class WatchFaceLayoutTest {
+
+    @Test
+    public void laysOutRoundSurface() {
+        WatchFaceLayout layout = WatchFaceLayout.of(360, 360, true, 61f, 72, 45, 120, 28);
+
+        assertEquals(180, layout.midpoint);
+        assertEquals(360 - 120 - 9, layout.logoLeft);
+        assertEquals(180 - 9 - 28, layout.logoTop);
+        assertEquals(180, layout.notificationX);
+        assertEquals(340, layout.notificationY);
+        assertEquals(180 - 10, layout.hoursBaseline);
+        assertEquals(180 + 10 + 45, layout.minutesBaseline);
+        assertEquals(68, layout.ambientSizeX);
+        assertEquals(93, layout.ambientSizeY);
+    }
+
+    @Test
+    public void laysOutSquareSurface() {
+        // Not round, and not as tall as it is wide, so the midpoint follows the height.
+        WatchFaceLayout layout = WatchFaceLayout.of(320, 290, false, 54f, 64, 40, 107, 23);
+
+        assertEquals(145, layout.midpoint);
+        assertEquals(320 - 107 - 9, layout.logoLeft);
+        assertEquals(145 - 9 - 23, layout.logoTop);
+        assertEquals(160, layout.notificationX);
+        assertEquals(270, layout.notificationY);
+        assertEquals(145 - 10, layout.hoursBaseline);
+        assertEquals(145 + 10 + 40, layout.minutesBaseline);
+    }
+
+    @Test
+    public void keepsDriftedDigitsOnScreen() {
+        int[] sizes = { 280, 320, 360, 400, 454 };
+        for (int size : sizes) {
+            WatchFaceLayout layout = WatchFaceLayout.of(size, size, true, size * 0.17f, size / 5, size / 8, 107, 25);
+            assertTrue("drift x at " + size, layout.ambientSizeX > 0 && layout.ambientSizeX < layout.midpoint);
+            assertTrue("drift y at " + size, layout.ambientSizeY > 0 && layout.ambientSizeY < layout.midpoint);
+        }
+    }
+
+    @Test
+    public void placesTextRelativeToLayout() {
+        WatchFaceLayout layout = WatchFaceLayout.of(360, 360, true, 61f, 72, 45, 120, 28);
+
+        assertEquals((360 - 72) / 2, layout.centeredLeft(72));
+        assertEquals(layout.logoLeft + (120 - 80) / 2, layout.dateLeft(80));
+        assertEquals(180 + 20 + 9, layout.dateBaseline(20));
+    }
+
+    @Test
+    public void reusesCachedLayout() {
+        WatchFaceLayout first = WatchFaceLayout.of(390, 390, true, 66f, 78, 49, 130, 30);
+
+        assertSame(first, WatchFaceLayout.of(390, 390, true, 66f, 78, 49, 130, 30));
+        assertNotSame(first, WatchFaceLayout.compute(390, 390, true, 66f, 78, 49, 130, 30));
+        assertEquals(first, WatchFaceLayout.compute(390, 390, true, 66f, 78, 49, 130, 30));
+    }
+
+    @Test
+    public void keysCacheOnEveryInput() {
+        WatchFaceLayout round = WatchFaceLayout.of(300, 300, true, 51f, 60, 37, 100, 23);
+
+        assertNotSame(round, WatchFaceLayout.of(300, 300, false, 51f, 60, 37, 100, 23));
+        assertNotSame(round, WatchFaceLayout.of(300, 300, true, 52f, 60, 37, 100, 23));
+        assertNotSame(round, WatchFaceLayout.of(300, 300, true, 51f, 61, 37, 100, 23));
+        assertNotSame(round, WatchFaceLayout.of(300, 300, true, 51f, 60, 37, 101, 23));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedLayout() {
+        WatchFaceLayout first = WatchFaceLayout.of(200, 200, true, 34f, 40, 25, 67, 16);
+        for (int i = 1; i <= 4; i++) {
+            WatchFaceLayout.of(200 + i, 200 + i, true, 34f, 40, 25, 67, 16);
+        }
+
+        assertNotSame(first, WatchFaceLayout.of(200, 200, true, 34f, 40, 25, 67, 16));
+    }
+}